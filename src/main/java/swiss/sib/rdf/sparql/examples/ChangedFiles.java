@@ -0,0 +1,79 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The files below a directory that changed since a git commit, as found by the
+ * git command line in the local repository. Like a pull request, the changes
+ * are counted from where the current branch left the given one, so commits made
+ * on that branch since then are not included. Includes changes that are not yet
+ * committed and new files that are not ignored. Nothing is fetched.
+ */
+public final class ChangedFiles {
+	private ChangedFiles() {
+
+	}
+
+	/**
+	 * @param base a directory in a git work tree
+	 * @param ref  a commit, branch or tag, e.g. origin/main
+	 * @return the files changed since the merge base of ref and HEAD that still
+	 *         exist below base, as absolute normalized paths under base as given
+	 * @throws IOException if git can not be run, does not know the ref or ref
+	 *                     has no common history with HEAD
+	 */
+	public static Set<Path> since(Path base, String ref) throws IOException {
+		Path top = Paths.get(git(base, "rev-parse", "--show-toplevel").strip()).toRealPath();
+		Path realBase = base.toRealPath();
+		Path absoluteBase = base.toAbsolutePath().normalize();
+		// Same as git diff --merge-base, which older versions of git do not have
+		String mergeBase = git(base, "merge-base", ref, "HEAD").strip();
+		List<String> names = new ArrayList<>();
+		names.addAll(split(git(base, "diff", "--name-only", "--diff-filter=d", "-z", mergeBase, "--")));
+		names.addAll(split(git(base, "ls-files", "--others", "--exclude-standard", "--full-name", "-z")));
+		Set<Path> changed = new HashSet<>();
+		for (String name : names) {
+			Path file = top.resolve(name).normalize();
+			if (file.startsWith(realBase)) {
+				changed.add(absoluteBase.resolve(realBase.relativize(file)));
+			}
+		}
+		return changed;
+	}
+
+	private static List<String> split(String zeroSeparated) {
+		List<String> names = new ArrayList<>();
+		for (String name : zeroSeparated.split("\0")) {
+			if (!name.isEmpty()) {
+				names.add(name);
+			}
+		}
+		return names;
+	}
+
+	private static String git(Path directory, String... arguments) throws IOException {
+		List<String> command = new ArrayList<>(List.of("git", "-C", directory.toString()));
+		command.addAll(List.of(arguments));
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		try (InputStream out = process.getInputStream()) {
+			String output = new String(out.readAllBytes(), StandardCharsets.UTF_8);
+			int exit = process.waitFor();
+			if (exit != 0) {
+				throw new IOException(String.join(" ", command) + " failed with exit code " + exit);
+			}
+			return output;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			process.destroy();
+			throw new IOException(String.join(" ", command) + " was interrupted", e);
+		}
+	}
+}
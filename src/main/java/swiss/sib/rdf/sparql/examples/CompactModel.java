@@ -0,0 +1,479 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+/**
+ * A read only model that stores every distinct value once, in a dictionary, and
+ * each statement as four int identifiers into that dictionary. Meant for views
+ * over the whole corpus, where the same IRIs are repeated in many statements.
+ *
+ * Statements are returned in the order they were added. Lookups with a bound
+ * subject or predicate use an index that is built on first use. Models returned
+ * by {@link #filter(Resource, IRI, Value, Resource...)} share the dictionary.
+ */
+public final class CompactModel extends AbstractSet<Statement> implements Model {
+	private static final long serialVersionUID = 1L;
+	private static final SimpleValueFactory VF = SimpleValueFactory.getInstance();
+
+	// Below this number of statements a scan is as fast as using an index
+	private static final int INDEX_THRESHOLD = 64;
+	private static final int DEFAULT_GRAPH = -1;
+	private static final int ANY = -1;
+	private static final int NOT_IN_DICTIONARY = -2;
+
+	private final Dictionary dictionary;
+	// Subject, predicate, object and context id of each statement
+	private final int[] rows;
+	private final Set<Namespace> namespaces;
+	private transient volatile Map<Integer, int[]> bySubject;
+	private transient volatile Map<Integer, int[]> byPredicate;
+
+	/**
+	 * The values by id, and an open addressing hash table from the hash of a value
+	 * to its id plus one, so that finding the id of a value needs no boxed map.
+	 */
+	private record Dictionary(Value[] values, int[] slots) implements Serializable {
+		static Dictionary of(Value[] values) {
+			int[] slots = new int[Math.max(2, Integer.highestOneBit(Math.max(1, values.length)) << 2)];
+			for (int id = 0; id < values.length; id++) {
+				int slot = slot(values[id], slots.length);
+				while (slots[slot] != 0) {
+					slot = (slot + 1) & (slots.length - 1);
+				}
+				slots[slot] = id + 1;
+			}
+			return new Dictionary(values, slots);
+		}
+
+		private static int slot(Value value, int length) {
+			int h = value.hashCode();
+			return (h ^ (h >>> 16)) & (length - 1);
+		}
+
+		int id(Value value) {
+			if (value == null) {
+				return DEFAULT_GRAPH;
+			}
+			for (int slot = slot(value, slots.length); slots[slot] != 0; slot = (slot + 1) & (slots.length - 1)) {
+				if (values[slots[slot] - 1].equals(value)) {
+					return slots[slot] - 1;
+				}
+			}
+			return NOT_IN_DICTIONARY;
+		}
+
+		Value value(int id) {
+			return id == DEFAULT_GRAPH ? null : values[id];
+		}
+	}
+
+	private CompactModel(Dictionary dictionary, int[] rows, Set<Namespace> namespaces) {
+		this.dictionary = dictionary;
+		this.rows = rows;
+		this.namespaces = namespaces;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static CompactModel copyOf(Model model) {
+		Builder builder = builder();
+		builder.addAll(model);
+		model.getNamespaces().forEach(builder::setNamespace);
+		return builder.build();
+	}
+
+	/**
+	 * Collects statements, dropping duplicates, for a {@link CompactModel}.
+	 * Duplicates are found by sorting the rows whenever they fill up and when the
+	 * model is built, so the builder needs no set of all statements.
+	 */
+	public static final class Builder {
+		private final List<Value> values = new ArrayList<>();
+		private final Map<Value, Integer> ids = new HashMap<>();
+		private final Set<Namespace> namespaces = new LinkedHashSet<>();
+		private int[] rows = new int[1024];
+		private int size = 0;
+
+		private Builder() {
+		}
+
+		public Builder add(Statement st) {
+			int s = intern(st.getSubject());
+			int p = intern(st.getPredicate());
+			int o = intern(st.getObject());
+			int c = st.getContext() == null ? DEFAULT_GRAPH : intern(st.getContext());
+			if (rows.length < (size + 1) * 4) {
+				dropDuplicates();
+				// Only grow if dropping the duplicates did not free half of the rows
+				if (rows.length < size * 8) {
+					rows = Arrays.copyOf(rows, rows.length * 2);
+				}
+			}
+			int at = size * 4;
+			rows[at] = s;
+			rows[at + 1] = p;
+			rows[at + 2] = o;
+			rows[at + 3] = c;
+			size++;
+			return this;
+		}
+
+		public Builder addAll(Iterable<Statement> statements) {
+			for (Statement st : statements) {
+				add(st);
+			}
+			return this;
+		}
+
+		public Builder setNamespace(Namespace namespace) {
+			namespaces.add(namespace);
+			return this;
+		}
+
+		public CompactModel build() {
+			dropDuplicates();
+			Dictionary dictionary = Dictionary.of(values.toArray(new Value[0]));
+			return new CompactModel(dictionary, Arrays.copyOf(rows, size * 4),
+					Collections.unmodifiableSet(new LinkedHashSet<>(namespaces)));
+		}
+
+		/**
+		 * Keeps the first of each set of equal rows, in the order they were added.
+		 */
+		private void dropDuplicates() {
+			int[] order = new int[size];
+			for (int row = 0; row < size; row++) {
+				order[row] = row;
+			}
+			// Stable, so of equal rows the first added comes first
+			sort(order, new int[size], 0, size);
+			BitSet duplicate = new BitSet(size);
+			for (int i = 1; i < size; i++) {
+				if (compare(order[i - 1], order[i]) == 0) {
+					duplicate.set(order[i]);
+				}
+			}
+			int kept = 0;
+			for (int row = 0; row < size; row++) {
+				if (!duplicate.get(row)) {
+					System.arraycopy(rows, row * 4, rows, kept * 4, 4);
+					kept++;
+				}
+			}
+			size = kept;
+		}
+
+		private void sort(int[] order, int[] buffer, int from, int to) {
+			if (to - from < 2) {
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			sort(order, buffer, from, middle);
+			sort(order, buffer, middle, to);
+			System.arraycopy(order, from, buffer, from, to - from);
+			int left = from;
+			int right = middle;
+			for (int at = from; at < to; at++) {
+				if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+					order[at] = buffer[left++];
+				} else {
+					order[at] = buffer[right++];
+				}
+			}
+		}
+
+		private int compare(int a, int b) {
+			for (int column = 0; column < 4; column++) {
+				int c = Integer.compare(rows[a * 4 + column], rows[b * 4 + column]);
+				if (c != 0) {
+					return c;
+				}
+			}
+			return 0;
+		}
+
+		private int intern(Value value) {
+			return ids.computeIfAbsent(value, v -> {
+				values.add(v);
+				return values.size() - 1;
+			});
+		}
+	}
+
+	@Override
+	public int size() {
+		return rows.length / 4;
+	}
+
+	@Override
+	public Iterator<Statement> iterator() {
+		return new RowIterator(null, size(), ANY, ANY, ANY, new int[0]);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (o instanceof Statement st) {
+			return contains(st.getSubject(), st.getPredicate(), st.getObject(), st.getContext());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean contains(Resource subj, IRI pred, Value obj, Resource... contexts) {
+		return getStatements(subj, pred, obj, contexts).iterator().hasNext();
+	}
+
+	@Override
+	public Iterable<Statement> getStatements(Resource subject, IRI predicate, Value object, Resource... contexts) {
+		int s = subject == null ? ANY : dictionary.id(subject);
+		int p = predicate == null ? ANY : dictionary.id(predicate);
+		int o = object == null ? ANY : dictionary.id(object);
+		int[] c = contextIds(contexts);
+		if (s == NOT_IN_DICTIONARY || p == NOT_IN_DICTIONARY || o == NOT_IN_DICTIONARY || c == null) {
+			return Collections.emptyList();
+		}
+		int[] candidates = null;
+		if (subject != null && size() > INDEX_THRESHOLD) {
+			candidates = subjectIndex().getOrDefault(s, new int[0]);
+		} else if (predicate != null && size() > INDEX_THRESHOLD) {
+			candidates = predicateIndex().getOrDefault(p, new int[0]);
+		}
+		int[] from = candidates;
+		int until = candidates == null ? size() : candidates.length;
+		return () -> new RowIterator(from, until, s, p, o, c);
+	}
+
+	/**
+	 * @return the context ids to match, an empty array for any context, or null if
+	 *         none of the contexts is in this model
+	 */
+	private int[] contextIds(Resource... contexts) {
+		if (contexts == null || contexts.length == 0) {
+			return new int[0];
+		}
+		int[] ids = Arrays.stream(contexts).mapToInt(dictionary::id).filter(i -> i != NOT_IN_DICTIONARY).toArray();
+		return ids.length == 0 ? null : ids;
+	}
+
+	@Override
+	public Model filter(Resource subj, IRI pred, Value obj, Resource... contexts) {
+		int[] matched = new int[16];
+		int found = 0;
+		Iterator<Statement> iter = getStatements(subj, pred, obj, contexts).iterator();
+		RowIterator rowIter = iter instanceof RowIterator ri ? ri : null;
+		while (rowIter != null && rowIter.hasNext()) {
+			int row = rowIter.nextRow();
+			if (matched.length < (found + 1) * 4) {
+				matched = Arrays.copyOf(matched, matched.length * 2);
+			}
+			System.arraycopy(rows, row * 4, matched, found * 4, 4);
+			found++;
+		}
+		return new CompactModel(dictionary, Arrays.copyOf(matched, found * 4), namespaces);
+	}
+
+	@Override
+	public Set<Resource> subjects() {
+		return distinct(0, Resource.class);
+	}
+
+	@Override
+	public Set<IRI> predicates() {
+		return distinct(1, IRI.class);
+	}
+
+	@Override
+	public Set<Value> objects() {
+		return distinct(2, Value.class);
+	}
+
+	@Override
+	public Set<Resource> contexts() {
+		Set<Resource> contexts = new LinkedHashSet<>();
+		for (int row = 0; row < size(); row++) {
+			contexts.add((Resource) dictionary.value(rows[row * 4 + 3]));
+		}
+		return Collections.unmodifiableSet(contexts);
+	}
+
+	private <T extends Value> Set<T> distinct(int column, Class<T> type) {
+		Set<T> distinct = new LinkedHashSet<>();
+		for (int row = 0; row < size(); row++) {
+			distinct.add(type.cast(dictionary.value(rows[row * 4 + column])));
+		}
+		return Collections.unmodifiableSet(distinct);
+	}
+
+	@Override
+	public Model unmodifiable() {
+		return this;
+	}
+
+	@Override
+	public Set<Namespace> getNamespaces() {
+		return namespaces;
+	}
+
+	@Override
+	public Optional<Namespace> getNamespace(String prefix) {
+		return namespaces.stream().filter(ns -> ns.getPrefix().equals(prefix)).findFirst();
+	}
+
+	@Override
+	public void setNamespace(Namespace namespace) {
+		throw new UnsupportedOperationException("CompactModel is read only");
+	}
+
+	@Override
+	public Optional<Namespace> removeNamespace(String prefix) {
+		throw new UnsupportedOperationException("CompactModel is read only");
+	}
+
+	@Override
+	public boolean add(Resource subj, IRI pred, Value obj, Resource... contexts) {
+		throw new UnsupportedOperationException("CompactModel is read only");
+	}
+
+	@Override
+	public boolean clear(Resource... context) {
+		throw new UnsupportedOperationException("CompactModel is read only");
+	}
+
+	@Override
+	public boolean remove(Resource subj, IRI pred, Value obj, Resource... contexts) {
+		throw new UnsupportedOperationException("CompactModel is read only");
+	}
+
+	private Map<Integer, int[]> subjectIndex() {
+		if (bySubject == null) {
+			bySubject = index(0);
+		}
+		return bySubject;
+	}
+
+	private Map<Integer, int[]> predicateIndex() {
+		if (byPredicate == null) {
+			byPredicate = index(1);
+		}
+		return byPredicate;
+	}
+
+	/**
+	 * @return for each id in the column the rows it is in, in ascending order
+	 */
+	private Map<Integer, int[]> index(int column) {
+		Map<Integer, int[]> counts = new HashMap<>();
+		for (int row = 0; row < size(); row++) {
+			counts.computeIfAbsent(rows[row * 4 + column], k -> new int[1])[0]++;
+		}
+		Map<Integer, int[]> index = new HashMap<>(counts.size() * 2);
+		for (var en : counts.entrySet()) {
+			index.put(en.getKey(), new int[en.getValue()[0]]);
+			en.getValue()[0] = 0;
+		}
+		for (int row = 0; row < size(); row++) {
+			int id = rows[row * 4 + column];
+			index.get(id)[counts.get(id)[0]++] = row;
+		}
+		return index;
+	}
+
+	/**
+	 * Walks over all rows, or only the candidate rows, and returns those that
+	 * match. ANY for subject, predicate or object, or no contexts, matches any
+	 * value.
+	 */
+	private final class RowIterator implements Iterator<Statement> {
+		private final int[] candidates;
+		private final int until;
+		private final int s;
+		private final int p;
+		private final int o;
+		private final int[] c;
+		private int at = 0;
+		private int next = -1;
+
+		private RowIterator(int[] candidates, int until, int s, int p, int o, int[] c) {
+			this.candidates = candidates;
+			this.until = until;
+			this.s = s;
+			this.p = p;
+			this.o = o;
+			this.c = c;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next < 0 && at < until) {
+				int row = candidates == null ? at : candidates[at];
+				at++;
+				if (matches(row)) {
+					next = row;
+				}
+			}
+			return next >= 0;
+		}
+
+		private boolean matches(int row) {
+			int base = row * 4;
+			if ((s != ANY && rows[base] != s) || (p != ANY && rows[base + 1] != p)
+					|| (o != ANY && rows[base + 2] != o)) {
+				return false;
+			}
+			if (c.length == 0) {
+				return true;
+			}
+			for (int context : c) {
+				if (rows[base + 3] == context) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private int nextRow() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int row = next;
+			next = -1;
+			return row;
+		}
+
+		@Override
+		public Statement next() {
+			int base = nextRow() * 4;
+			Resource subject = (Resource) dictionary.value(rows[base]);
+			IRI predicate = (IRI) dictionary.value(rows[base + 1]);
+			Value object = dictionary.value(rows[base + 2]);
+			Resource context = (Resource) dictionary.value(rows[base + 3]);
+			if (context == null) {
+				return VF.createStatement(subject, predicate, object);
+			}
+			return VF.createStatement(subject, predicate, object, context);
+		}
+	}
+}
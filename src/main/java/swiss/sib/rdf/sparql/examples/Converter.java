@@ -5,33 +5,55 @@ import static org.eclipse.rdf4j.common.lang.FileFormat.matchFileName;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.FileVisitOption;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
-import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.base.AbstractValueFactory;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.SHACL;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
 import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandler;
 import org.eclipse.rdf4j.rio.RDFHandlerException;
 import org.eclipse.rdf4j.rio.RDFParseException;
 import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.RDFWriter;
 import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
 import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 
 import picocli.CommandLine;
@@ -39,7 +61,9 @@ import picocli.CommandLine.Command;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Spec;
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
 import swiss.sib.rdf.sparql.examples.vocabularies.SIB;
+import swiss.sib.rdf.sparql.examples.vocabularies.SchemaDotOrg;
 
 @Command(name = "convert", description = "Converts example files into RDF")
 public class Converter implements Callable<Integer>{
@@ -64,6 +88,15 @@ public class Converter implements Callable<Integer>{
 	private boolean outputMd;
 
 
+	@Option(names = { "-s",
+			"--stream" }, paramLabel = "stream the RDF output", description = "write the statements of each example as soon as it is parsed, instead of collecting all examples in memory first. Best used with the nt or ndjsonld formats", defaultValue = "false")
+	private boolean stream;
+
+	@Option(names = {
+			"--incremental" }, paramLabel = "only render changed examples", description = "only render the markdown or rq files whose example, prefixes or tool version changed since the last run. The hashes of the inputs are kept in "
+					+ RenderManifest.FILE_NAME + " in the input directory", defaultValue = "false")
+	private boolean incremental;
+
 	@Option(names = { "-i",
 			"--input-directory" }, paramLabel = "directory containing example files to convert", description = "The root directory where the examples and their prefixes can be found.", required = true)
 	private Path inputDirectory;
@@ -74,11 +107,28 @@ public class Converter implements Callable<Integer>{
 	@Option(names = { "-p", "--project" }, paramLabel = "projects to convert", defaultValue = "all")
 	private String projects;
 
+	@Option(names = {
+			"--snapshot" }, paramLabel = "snapshot file", description = "load the parsed examples from this snapshot, as made by the snapshot command. Changed examples are parsed again and the snapshot is updated")
+	private Path snapshot;
+
+	@Option(names = { "-t",
+			"--threads" }, paramLabel = "number of threads", description = "how many examples are rendered at the same time into markdown or rq files. Defaults to the number of processors")
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private CorpusContext context;
+
+	private RenderManifest manifest;
+
+	private CorpusSnapshot corpusSnapshot;
+
+	// The examples of each project directory, kept for the pages over all examples
+	private final Map<Path, Model> parsedProjects = new ConcurrentHashMap<>();
+	private boolean keepParsedProjects;
+
 	public Integer call() {
 		CommandLine commandLine = spec.commandLine();
 		System.err.println("inputDirectory: "+inputDirectory);
-		
-		System.setProperty(Tester.class.getName(), inputDirectory.toString());
+
 		if (commandLine.isUsageHelpRequested()) {
 			commandLine.usage(System.out);
 			return 0;
@@ -87,143 +137,315 @@ public class Converter implements Callable<Integer>{
 			return 0;
 		} else {
 			try {
+				context = CorpusContext.forProjects(inputDirectory, projects);
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+				return Failure.CANT_READ_INPUT_DIRECTORY.exitCode();
+			}
+			try {
+				if (snapshot != null) {
+					corpusSnapshot = CorpusSnapshot.open(snapshot, inputDirectory);
+				}
 				if (outputMd) {
 					Map<String, Function<Model, List<String>>> m = Map.of("algebra-statistics.",
 							SparqlInRdfToMd::asStatisticsMD, "void-statistics", SparqlInRdfToMd::asSchemaMD);
 					convertPerSingle("md", SparqlInRdfToMd::asMD, SparqlInRdfToMd::asIndexMD, m);
 				} else if (outputRq) {
 					convertPerSingle("rq", SparqlInRdfToRq::asRq, null, Collections.emptyMap());
+				} else if (stream) {
+					streamToRdf();
 				} else {
 					convertToRdf();
 				}
+				if (corpusSnapshot != null) {
+					corpusSnapshot.save();
+				}
 			} catch (NeedToStopException e) {
 				System.err.println(e.getMessage());
 				return e.getFailure().exitCode();
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+				return Failure.CANT_WRITE_EXAMPLE_RQ.exitCode();
 			}
 		}
 		return 0;
 	}
 
-	private static final Pattern COMMA = Pattern.compile(",", Pattern.LITERAL);
+	private static final List<Namespace> STREAMED_NAMESPACES = List.of(SHACL.NS, RDF.NS, RDFS.NS, XSD.NS, DCTERMS.NS,
+			SchemaDotOrg.NS, SIB.NS);
 
 	private void convertToRdf() throws NeedToStopException {
-		Model model = parseExampleFilesIntoModel(projects, inputDirectory);
+		Model model = parseExampleFilesIntoModel(context, corpusSnapshot);
 		print(model);
 	}
 
-	static Model parseExampleFilesIntoModel(String projects, Path inputDirectory) throws NeedToStopException {
-		Model model = new LinkedHashModel();
-		if ("all".equals(projects)) {
-			try (Stream<Path> list = Files.list(inputDirectory)) {
-				parseAll(list, model, inputDirectory);
-			} catch (IOException e) {
-				throw new NeedToStopException(e, Failure.CANT_READ_INPUT_DIRECTORY);
-			}
-		} else {
-			try (Stream<Path> list = COMMA.splitAsStream(projects).map(inputDirectory::resolve)) {
-				parseAll(list, model, inputDirectory);
-			}
+	/**
+	 * Push the statements of each file straight into the writer as they are
+	 * parsed, so that memory use does not grow with the number of examples.
+	 */
+	private void streamToRdf() throws NeedToStopException {
+		RDFWriter writer = Rio.createWriter(outputRdfFormat(), System.out);
+		writer.startRDF();
+		for (Namespace ns : STREAMED_NAMESPACES) {
+			writer.handleNamespace(ns.getPrefix(), ns.getName());
 		}
+		streamAll(context, writer);
+		writer.endRDF();
+	}
+
+	static Model parseExampleFilesIntoModel(CorpusContext context, CorpusSnapshot snapshot)
+			throws NeedToStopException {
+		Model model = new LinkedHashModel();
+		parseAll(context, model, snapshot);
 		return model;
 	}
 
 	private void convertPerSingle(String extension, Function<Model, List<String>> converter, Function<Model, List<String>> converterPerProject, Map<String, Function<Model, List<String>>> converterForAll) throws NeedToStopException{
-		if ("all".equals(projects)) {
-			try (Stream<Path> subInputDirs = Files.list(inputDirectory).filter(Files::isDirectory)) {
-				convertProjectsPerSingle(subInputDirs, extension, converter, converterPerProject);
+		if (incremental) {
+			try {
+				manifest = RenderManifest.load(inputDirectory);
 			} catch (IOException e) {
-				throw new NeedToStopException(e, Failure.CANT_READ_INPUT_DIRECTORY);
-			}
-		} else {
-			try (Stream<Path> subInputDirs = COMMA.splitAsStream(projects).map(inputDirectory::resolve)) {
-				convertProjectsPerSingle(subInputDirs, extension, converter, converterPerProject);
+				throw Failure.CANT_READ_INPUT_DIRECTORY.tothrow(e);
 			}
 		}
+		keepParsedProjects = !converterForAll.isEmpty();
+		convertProjectsPerSingle(context.projects(), extension, converter, converterPerProject);
 		if (! converterForAll.isEmpty()) {
-			Model all = collectAllIntoSingleModel();
+			String allHash = manifest == null ? null : hashOfAllExamples(extension);
+			Model all = null;
 			for (var en:converterForAll.entrySet()) {
 				String prqfn = en.getKey()+extension;
 				Path indexMd = inputDirectory.resolve(prqfn);
+				if (manifest != null && manifest.isCurrent(indexMd, allHash)) {
+					continue;
+				}
+				if (all == null) {
+					all = collectAllIntoSingleModel();
+				}
 				try {
 					List<String> rq = en.getValue().apply(all);
 					Files.write(indexMd, rq, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 				} catch (IOException e) {
 					throw Failure.CANT_WRITE_EXAMPLE_RQ.tothrow(e);
 				}
+				if (manifest != null) {
+					manifest.rendered(indexMd, allHash);
+				}
+			}
+		}
+		if (manifest != null) {
+			try {
+				manifest.save();
+			} catch (IOException e) {
+				throw Failure.CANT_WRITE_EXAMPLE_RQ.tothrow(e);
+			}
+		}
+	}
+
+	/**
+	 * The pages over all examples change when any example or prefix file
+	 * directly below the input directory changes.
+	 */
+	private String hashOfAllExamples(String extension) {
+		List<byte[]> parts = new ArrayList<>();
+		parts.add(extension.getBytes(StandardCharsets.UTF_8));
+		parts.add(RenderManifest.contentOrEmpty(inputDirectory.resolve("prefixes.ttl")));
+		FileIndex index = index(context);
+		for (Path pro : index.projects()) {
+			parts.add(pro.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+			parts.add(RenderManifest.contentOrEmpty(pro.resolve("prefixes.ttl")));
+			for (Path p : index.examples(pro)) {
+				parts.add(p.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+				parts.add(RenderManifest.contentOrEmpty(p));
 			}
 		}
+		return RenderManifest.hash(parts);
 	}
 
+	/**
+	 * Each project is collected in a temporary model and then added to a
+	 * {@link CompactModel}, so that only one project at a time is held as full
+	 * statement objects. Projects that were already parsed while rendering their
+	 * examples are not parsed again.
+	 */
 	private Model collectAllIntoSingleModel() {
-		try (Stream<Path> list = Files.list(inputDirectory)) {
-			Optional<Path> findCommonPrefixes = FindFiles.prefixFile(inputDirectory).findFirst();
-			Model all = new LinkedHashModel();
-			Model commonPrefixes = prefixModel(findCommonPrefixes);
-			all.addAll(commonPrefixes);
-			list.filter(Files::isDirectory).forEach(pro -> {
-				Optional<Path> findProjectPrefixes = FindFiles.prefixFile(pro).findFirst();
-				Model projectPrefixes = prefixModel(findProjectPrefixes);
-				all.addAll(projectPrefixes);
-				try {
-					FindFiles.sparqlExamples(pro).forEach(p -> parseAndRenderSingleExample(null, null,
-							commonPrefixes, projectPrefixes, all, p));
-				} catch (IOException e) {
-					throw Failure.CANT_READ_INPUT_DIRECTORY.tothrow(e);
-				}
-			});
-			return all;
-		} catch (IOException e) {
-			throw Failure.CANT_READ_INPUT_DIRECTORY.tothrow(e);
+		FileIndex index = index(context);
+		Optional<Path> findCommonPrefixes = index.prefixFile(inputDirectory);
+		CompactModel.Builder all = CompactModel.builder();
+		Model commonPrefixes = prefixModel(findCommonPrefixes);
+		all.addAll(commonPrefixes);
+		for (Path pro : index.projects()) {
+			Model parsed = parsedProjects.remove(pro);
+			if (parsed != null) {
+				all.addAll(parsed);
+				continue;
+			}
+			Optional<Path> findProjectPrefixes = index.prefixFile(pro);
+			Model projectPrefixes = prefixModel(findProjectPrefixes);
+			Model forProject = new LinkedHashModel();
+			forProject.addAll(projectPrefixes);
+			index.examples(pro).forEach(p -> forProject
+					.addAll(parseAndRenderSingleExample(null, null, commonPrefixes, projectPrefixes, p)));
+			all.addAll(forProject);
 		}
+		parsedProjects.clear();
+		return all.build();
 	}
 
-	private void convertProjectsPerSingle(Stream<Path> list, String extension, Function<Model, List<String>> converter, Function<Model, List<String>> convertPerProject) {
-		Optional<Path> findCommonPrefixes = FindFiles.prefixFile(inputDirectory).findFirst();
+	/**
+	 * Keeps the examples of a project directory, once all of them are parsed, for
+	 * the pages over all examples. Must be called before anything but the examples
+	 * is added to the model.
+	 */
+	private void keepForPagesOverAllExamples(Path pro, Model allForProject) {
+		if (keepParsedProjects && index(context).projects().contains(pro)) {
+			parsedProjects.put(pro, CompactModel.copyOf(allForProject));
+		}
+	}
+
+	/**
+	 * Renders the examples of all directories on a pool of threads. The index of a
+	 * directory is rendered once all its examples are done, from their models
+	 * merged in file name order, so the output does not depend on which thread
+	 * finished first.
+	 */
+	private void convertProjectsPerSingle(List<Path> list, String extension, Function<Model, List<String>> converter, Function<Model, List<String>> convertPerProject) {
+		FileIndex index = index(context);
+		Optional<Path> findCommonPrefixes = index.prefixFile(inputDirectory);
 		Model commonPrefixes = prefixModel(findCommonPrefixes);
-		list
-		.flatMap(p -> {
-			try {
-				return Files.walk(p, FileVisitOption.FOLLOW_LINKS);
-			} catch (IOException e) {
-				throw Failure.CANT_READ_EXAMPLE.tothrow(e);
+		List<Path> directories = list.stream().flatMap(p -> index.directoriesBelow(p).stream()).toList();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+		try {
+			CompletableFuture.allOf(directories.stream()
+					.map(pro -> convertDirectory(executor, extension, converter, convertPerProject, commonPrefixes, pro))
+					.toArray(CompletableFuture[]::new)).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof NeedToStopException nts) {
+				throw nts;
 			}
-		})
-		.filter(Files::isDirectory)
-		.forEach(pro -> {
-			try {
-				Optional<Path> findProjectPrefixes = FindFiles.prefixFile(pro).findFirst();
-				Model projectPrefixes = prefixModel(findProjectPrefixes);
-				Model allForProject = new LinkedHashModel();
-				allForProject.addAll(commonPrefixes);
-				allForProject.addAll(projectPrefixes);
-				FindFiles.sparqlExamples(pro).forEach(p -> parseAndRenderSingleExample(extension, converter,
-						commonPrefixes, projectPrefixes, allForProject, p));
-				if (convertPerProject != null) {
-					renderAllExamplesInAProject(extension, convertPerProject, pro, allForProject);
-				}
-			} catch (IOException e) {
-				throw Failure.CANT_PARSE_EXAMPLE.tothrow(e);
+			throw e;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private CompletableFuture<Void> convertDirectory(Executor executor, String extension,
+			Function<Model, List<String>> converter, Function<Model, List<String>> convertPerProject,
+			Model commonPrefixes, Path pro) {
+		FileIndex index = index(context);
+		Optional<Path> findProjectPrefixes = index.prefixFile(pro);
+		Model projectPrefixes = prefixModel(findProjectPrefixes);
+		List<Path> examples = index.examples(pro);
+		if (manifest != null) {
+			return convertDirectoryIncrementally(executor, extension, converter, convertPerProject, commonPrefixes,
+					projectPrefixes, pro, examples);
+		}
+		List<CompletableFuture<Model>> parsed = examples.stream()
+				.map(p -> CompletableFuture.supplyAsync(() -> parseAndRenderSingleExample(extension, converter,
+						commonPrefixes, projectPrefixes, p), executor))
+				.toList();
+		return whenAll(parsed).thenAccept(models -> {
+			Model allForProject = forProject(commonPrefixes, projectPrefixes, models);
+			keepForPagesOverAllExamples(pro, allForProject);
+			if (convertPerProject != null) {
+				renderAllExamplesInAProject(extension, convertPerProject, pro, allForProject);
 			}
 		});
 	}
 
+	private static <T> CompletableFuture<List<T>> whenAll(List<CompletableFuture<T>> futures) {
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+				.thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+	}
+
+	private static Model forProject(Model commonPrefixes, Model projectPrefixes, List<Model> examples) {
+		Model allForProject = new LinkedHashModel();
+		allForProject.addAll(commonPrefixes);
+		allForProject.addAll(projectPrefixes);
+		examples.forEach(allForProject::addAll);
+		return allForProject;
+	}
+
+	/**
+	 * Only parses and renders the examples whose hash differs from the one in the
+	 * manifest. The index of the directory needs all examples, so if it is out of
+	 * date every example in the directory is parsed, but still only the changed
+	 * ones are written.
+	 */
+	private CompletableFuture<Void> convertDirectoryIncrementally(Executor executor, String extension,
+			Function<Model, List<String>> converter, Function<Model, List<String>> convertPerProject,
+			Model commonPrefixes, Model projectPrefixes, Path pro, List<Path> examples) {
+		byte[] prefixes = prefixBytes(pro);
+		Map<Path, String> hashes = new LinkedHashMap<>();
+		for (Path p : examples) {
+			hashes.put(p, RenderManifest.hash(List.of(extension.getBytes(StandardCharsets.UTF_8), prefixes,
+					RenderManifest.contentOrEmpty(p))));
+		}
+		Path index = pro.resolve("index." + extension);
+		String indexHash;
+		if (convertPerProject != null) {
+			// The index lists the examples by path, so a renamed example changes it
+			List<String> parts = new ArrayList<>();
+			hashes.forEach((p, hash) -> {
+				parts.add(inputDirectory.relativize(p).toString().replace('\\', '/'));
+				parts.add(hash);
+			});
+			subProjects(pro).forEach(d -> parts.add(d.getFileName().toString()));
+			indexHash = RenderManifest.hash(parts.toArray(String[]::new));
+		} else {
+			indexHash = null;
+		}
+		boolean indexDirty = indexHash != null && !manifest.isCurrent(index, indexHash);
+		boolean allParsed = true;
+		List<CompletableFuture<Model>> parsed = new ArrayList<>();
+		for (var en : hashes.entrySet()) {
+			Path p = en.getKey();
+			Path output = outputFor(p, extension);
+			boolean dirty = converter != null && !manifest.isCurrent(output, en.getValue());
+			if (dirty) {
+				parsed.add(CompletableFuture.supplyAsync(() -> {
+					Model ex = parseAndRenderSingleExample(extension, converter, commonPrefixes, projectPrefixes, p);
+					manifest.rendered(output, en.getValue());
+					return ex;
+				}, executor));
+			} else if (indexDirty) {
+				parsed.add(CompletableFuture.supplyAsync(
+						() -> parseAndRenderSingleExample(extension, null, commonPrefixes, projectPrefixes, p),
+						executor));
+			} else {
+				allParsed = false;
+			}
+		}
+		boolean complete = allParsed;
+		return whenAll(parsed).thenAccept(models -> {
+			Model allForProject = forProject(commonPrefixes, projectPrefixes, models);
+			if (complete) {
+				keepForPagesOverAllExamples(pro, allForProject);
+			}
+			if (indexDirty) {
+				renderAllExamplesInAProject(extension, convertPerProject, pro, allForProject);
+				manifest.rendered(index, indexHash);
+			}
+		});
+	}
+
+	private byte[] prefixBytes(Path pro) {
+		byte[] common = RenderManifest.contentOrEmpty(inputDirectory.resolve("prefixes.ttl"));
+		byte[] project = RenderManifest.contentOrEmpty(pro.resolve("prefixes.ttl"));
+		byte[] both = Arrays.copyOf(common, common.length + project.length);
+		System.arraycopy(project, 0, both, common.length, project.length);
+		return both;
+	}
+
 	private void renderAllExamplesInAProject(String extension, Function<Model, List<String>> convertPerProject,
 			Path pro, Model allForProject) {
 		String prqfn = "index."+extension;
 		Path indexMd = pro.resolve(prqfn);
 		try {
-			try (Stream<Path> subs = Files.list(pro).filter(Files::isDirectory).filter(d -> {
-				try {
-					return FindFiles.sparqlExamples(d).findAny().isPresent();
-				} catch (IOException e) {
-					throw Failure.CANT_READ_EXAMPLE.tothrow(e);
-				}
-			})) {
-				subs.forEach(p -> {
-					allForProject.add(VF.createStatement(VF.createIRI(pro.toUri().toString()), SIB.SUB_PROJECT,
-							VF.createLiteral(p.getFileName().toString())));
-				});
-			}
+			subProjects(pro).forEach(p -> {
+				allForProject.add(VF.createStatement(VF.createIRI(pro.toUri().toString()), SIB.SUB_PROJECT,
+						VF.createLiteral(p.getFileName().toString())));
+			});
 			List<String> rq = convertPerProject.apply(allForProject);
 			Files.write(indexMd, rq, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
 		} catch (IOException e) {
@@ -231,21 +453,44 @@ public class Converter implements Callable<Integer>{
 		}
 	}
 
-	private void parseAndRenderSingleExample(String extension, Function<Model, List<String>> converter,
-			Model commonPrefixes, Model projectPrefixes, Model allForProject, Path p) throws NeedToStopException {
-		Model ex = parseSingle(p);
+	/**
+	 * @return the direct sub directories of pro that contain examples, sorted
+	 */
+	private List<Path> subProjects(Path pro) {
+		FileIndex index = index(context);
+		return index.subDirectories(pro).stream().filter(index::hasExamples).toList();
+	}
+
+	private static FileIndex index(CorpusContext context) {
+		try {
+			return context.index();
+		} catch (IOException e) {
+			throw Failure.CANT_READ_INPUT_DIRECTORY.tothrow(e);
+		}
+	}
+
+	private static Path outputFor(Path p, String extension) {
+		String pfn = p.getFileName().toString();
+		String prqfn = pfn.substring(0, pfn.indexOf('.')) + "."+extension;
+		return p.getParent().resolve(prqfn);
+	}
+
+	/**
+	 * @return the statements of the example to add to the model of its project
+	 */
+	private Model parseAndRenderSingleExample(String extension, Function<Model, List<String>> converter,
+			Model commonPrefixes, Model projectPrefixes, Path p) throws NeedToStopException {
+		Model ex = parseSingle(p, SimpleValueFactory.getInstance(), corpusSnapshot);
 		ex.addAll(commonPrefixes);
 		ex.addAll(projectPrefixes);
-		allForProject.addAll(ex);
+		Model forProject = new LinkedHashModel(ex);
 		Iterator<Statement> iterator = ex.getStatements(null, RDF.TYPE, SHACL.SPARQL_EXECUTABLE).iterator();
 		if (iterator.hasNext()) {
-			addTriplesUsedDuringBuild(allForProject, p, iterator.next().getSubject());
+			addTriplesUsedDuringBuild(forProject, p, iterator.next().getSubject());
 		}
 		
 		if (converter != null) {
-			String pfn = p.getFileName().toString();
-			String prqfn = pfn.substring(0, pfn.indexOf('.')) + "."+extension;
-			Path prq = p.getParent().resolve(prqfn);
+			Path prq = outputFor(p, extension);
 			try {
 				List<String> rq = converter.apply(ex);
 				Files.write(prq, rq, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
@@ -253,45 +498,104 @@ public class Converter implements Callable<Integer>{
 				throw Failure.CANT_WRITE_EXAMPLE_RQ.tothrow(e);
 			}
 		}
+		return forProject;
 	}
 
 	protected static void addTriplesUsedDuringBuild(Model allForProject, Path p, Resource subject) {
-		
+		allForProject.addAll(triplesUsedDuringBuild(p, subject));
+	}
+
+	private static List<Statement> triplesUsedDuringBuild(Path p, Resource subject) {
 		File file = p.toFile();
-		allForProject.add(VF.createStatement(subject, SIB.FILE_NAME, VF.createLiteral(file.getName())));
-		allForProject.add(VF.createStatement(subject, SIB.FILE_PATH, VF.createLiteral(file.toString())));
-		allForProject.add(VF.createStatement(subject, SIB.PROJECT, VF.createLiteral(p.getParent().getFileName().toString())));
+		return List.of(VF.createStatement(subject, SIB.FILE_NAME, VF.createLiteral(file.getName())),
+				VF.createStatement(subject, SIB.FILE_PATH, VF.createLiteral(file.toString())),
+				VF.createStatement(subject, SIB.PROJECT, VF.createLiteral(p.getParent().getFileName().toString())));
 	}
 
 	private Model prefixModel(Optional<Path> findFirst) {
 		Model prefixes = new LinkedHashModel();
 		if (findFirst.isPresent() && Files.exists(findFirst.get())) {
-			prefixes = parseSingle(findFirst.get());
+			prefixes = parseSingle(findFirst.get(), SimpleValueFactory.getInstance(), corpusSnapshot);
 		}
 		return prefixes;
 	}
 
-	static void parseAll(Stream<Path> paths, Model model, Path inputDirectory) {
-		Stream.concat(FindFiles.prefixFile(inputDirectory), paths.flatMap(arg0 -> {
-			try {
-				return Stream.concat(FindFiles.prefixFile(arg0), FindFiles.sparqlExamples(arg0));
-			} catch (IOException e) {
-				throw Failure.CANT_READ_EXAMPLE.tothrow(e);
-			}
-		})).filter(Files::exists).parallel().forEach(p -> {
-			parseTurtleFileIntoModel(model, p);
+	/**
+	 * Parse all files on all cores, each into its own model, then merge them in
+	 * the order of their paths. Blank nodes get identifiers derived from the
+	 * position of their file in that order, so the merged model is the same on
+	 * every run.
+	 */
+	static void parseAll(CorpusContext context, Model model, CorpusSnapshot snapshot) {
+		List<Path> files = filesToParse(context);
+		List<Model> parsed = IntStream.range(0, files.size()).parallel()
+				.mapToObj(i -> parseSingle(files.get(i), new FileScopedValueFactory("f" + i + "b"), snapshot))
+				.toList();
+		parsed.forEach(model::addAll);
+	}
+
+	static void streamAll(CorpusContext context, RDFHandler out) {
+		List<Path> files = filesToParse(context);
+		for (int i = 0; i < files.size(); i++) {
+			streamTurtleFile(out, files.get(i), new FileScopedValueFactory("f" + i + "b"));
+		}
+	}
+
+	private static List<Path> filesToParse(CorpusContext context) {
+		FileIndex index = index(context);
+		return Stream.concat(index.prefixFile(context.base()).stream(),
+				context.projects().stream().flatMap(
+						p -> Stream.concat(index.prefixFile(p).stream(), index.examples(p).stream())))
+				.distinct().sorted().toList();
+	}
+
+	/**
+	 * Takes the statements from the snapshot when the file did not change, with
+	 * the blank nodes renamed by the given value factory as if it was parsed.
+	 */
+	private static Model parseSingle(Path path, ValueFactory vf, CorpusSnapshot snapshot) throws NeedToStopException {
+		if (snapshot == null) {
+			return parseSingle(path, vf);
+		}
+		Example example = snapshot.example(path);
+		if (example.failure() instanceof IOException e) {
+			throw new NeedToStopException(e, Failure.CANT_READ_EXAMPLE);
+		} else if (example.failure() != null) {
+			System.err.println("Failed to parse " + path);
+			throw new NeedToStopException(example.failure(), Failure.CANT_PARSE_EXAMPLE);
+		}
+		Model model = new LinkedHashModel();
+		for (Statement st : example.model()) {
+			model.add(vf.createStatement((Resource) renamed(st.getSubject(), vf), st.getPredicate(),
+					renamed(st.getObject(), vf)));
+		}
+		model.getStatements(null, RDF.TYPE, SHACL.SPARQL_EXECUTABLE).forEach(s -> {
+			model.addAll(triplesUsedDuringBuild(path, s.getSubject()));
 		});
+		return model;
 	}
 
-	private Model parseSingle(Path path) throws NeedToStopException {
+	private static Value renamed(Value value, ValueFactory vf) {
+		if (value instanceof BNode b) {
+			return vf.createBNode(b.getID());
+		}
+		return value;
+	}
+
+	private static Model parseSingle(Path path, ValueFactory vf) throws NeedToStopException {
 		Model model = new LinkedHashModel();
-		parseTurtleFileIntoModel(model, path);
+		parseTurtleFileIntoModel(model, path, vf);
 		
 		return model;
 	}
 
 	static void parseTurtleFileIntoModel(Model model, Path p) throws NeedToStopException {
+		parseTurtleFileIntoModel(model, p, SimpleValueFactory.getInstance());
+	}
+
+	private static void parseTurtleFileIntoModel(Model model, Path p, ValueFactory vf) throws NeedToStopException {
 		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
+		rdfParser.setValueFactory(vf);
 		Model temp = new LinkedHashModel();
 		rdfParser.setRDFHandler(new StatementCollector(temp));
 		try (InputStream is = Files.newInputStream(p)) {
@@ -308,9 +612,63 @@ public class Converter implements Callable<Integer>{
 		model.addAll(temp);
 	}
 
+	private static void streamTurtleFile(RDFHandler out, Path p, ValueFactory vf) throws NeedToStopException {
+		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
+		rdfParser.setValueFactory(vf);
+		Set<Resource> executables = new LinkedHashSet<>();
+		rdfParser.setRDFHandler(new AbstractRDFHandler() {
+			@Override
+			public void handleStatement(Statement st) {
+				out.handleStatement(st);
+				if (RDF.TYPE.equals(st.getPredicate()) && SHACL.SPARQL_EXECUTABLE.equals(st.getObject())) {
+					executables.add(st.getSubject());
+				}
+			}
+		});
+		try (InputStream is = Files.newInputStream(p)) {
+			rdfParser.parse(is);
+		} catch (RDFParseException | RDFHandlerException e) {
+			System.err.println("Failed to parse " + p);
+			throw new NeedToStopException(e, Failure.CANT_PARSE_EXAMPLE);
+		} catch (IOException e) {
+			throw new NeedToStopException(e, Failure.CANT_READ_EXAMPLE);
+		}
+		for (Resource executable : executables) {
+			triplesUsedDuringBuild(p, executable).forEach(out::handleStatement);
+		}
+	}
+
+	/**
+	 * Names blank nodes by the order in which the parser meets them, instead of
+	 * the random identifiers the parser generates. Not thread safe, use one
+	 * instance per file.
+	 */
+	private static final class FileScopedValueFactory extends AbstractValueFactory {
+		private final String prefix;
+		private final Map<String, BNode> labelled = new HashMap<>();
+		private int next = 0;
+
+		private FileScopedValueFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public BNode createBNode() {
+			return super.createBNode(prefix + next++);
+		}
+
+		@Override
+		public BNode createBNode(String nodeID) {
+			return labelled.computeIfAbsent(nodeID, k -> createBNode());
+		}
+	}
+
 	private void print(Model model) {
-		Rio.write(model, System.out,
-				matchFileName("a." + outputFormat, outputFormats).orElse(RDFFormat.TURTLE));
+		Rio.write(model, System.out, outputRdfFormat());
+	}
+
+	private RDFFormat outputRdfFormat() {
+		return matchFileName("a." + outputFormat, outputFormats).orElse(RDFFormat.TURTLE);
 	}
 
 }
@@ -0,0 +1,398 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import swiss.sib.rdf.sparql.examples.tests.EngineMatrix;
+import swiss.sib.rdf.sparql.examples.tests.EngineStartup;
+import swiss.sib.rdf.sparql.examples.tests.ValidationCache;
+
+/**
+ * One example directory being converted or tested, with the projects selected
+ * in it. Everything that needs to know where the examples are gets it from
+ * here, so that several example directories can be handled at the same time in
+ * one JVM.
+ *
+ * The JUnit tests run by {@link Tester} find their context by the id given to
+ * the launcher as the {@value #CONFIGURATION_PARAMETER} configuration
+ * parameter.
+ */
+public final class CorpusContext implements AutoCloseable {
+	public static final String CONFIGURATION_PARAMETER = "sparql.examples.corpus";
+	public static final int DEFAULT_QUERY_CONCURRENCY = 16;
+	public static final int DEFAULT_PER_ENDPOINT_CONCURRENCY = 2;
+
+	private static final Pattern COMMA = Pattern.compile(",", Pattern.LITERAL);
+	private static final Map<String, CorpusContext> REGISTERED = new ConcurrentHashMap<>();
+	private static final AtomicLong IDS = new AtomicLong();
+
+	private final String id;
+	private final Path base;
+	private final List<Path> projects;
+	private Path snapshot;
+	private ValidationCache validationCache;
+	private EngineMatrix engineMatrix;
+	private EngineStartup engineStartup = new EngineStartup();
+	private TestTimings testTimings;
+	private Shard shard = Shard.ALL;
+	private int queryConcurrency = DEFAULT_QUERY_CONCURRENCY;
+	private int perEndpointConcurrency = DEFAULT_PER_ENDPOINT_CONCURRENCY;
+	private Set<Path> changed;
+	private Set<Path> selected;
+	private FileIndex index;
+	private ExampleCorpus all;
+	private ExampleCorpus corpus;
+	private ExampleIriIndex exampleIris;
+
+	private CorpusContext(Path base, Collection<Path> projects, FileIndex index) {
+		this.id = Long.toString(IDS.incrementAndGet());
+		this.base = base;
+		this.projects = List.copyOf(projects);
+		this.index = index;
+	}
+
+	/**
+	 * @param base     the root directory of the examples
+	 * @param projects the project directories to use, if empty only the examples
+	 *                 directly in base are used
+	 * @return a context that is not yet registered
+	 */
+	public static CorpusContext of(Path base, Collection<Path> projects) {
+		return new CorpusContext(base, projects, null);
+	}
+
+	/**
+	 * @param base     the root directory of the examples
+	 * @param projects "all" for every project directory, or a comma separated list
+	 *                 of project directories
+	 * @return a context that is not yet registered
+	 * @throws IOException if the project directories can not be found
+	 */
+	public static CorpusContext forProjects(Path base, String projects) throws IOException {
+		if ("all".equals(projects)) {
+			FileIndex index = FileIndex.of(base);
+			return new CorpusContext(base, index.projects(), index);
+		} else {
+			return of(base, COMMA.splitAsStream(projects).map(base::resolve).toList());
+		}
+	}
+
+	/**
+	 * Makes this context findable by its id, until it is closed.
+	 *
+	 * @return the id
+	 */
+	public String register() {
+		REGISTERED.put(id, this);
+		return id;
+	}
+
+	public static Optional<CorpusContext> registered(String id) {
+		return Optional.ofNullable(REGISTERED.get(id));
+	}
+
+	/**
+	 * For running the tests outside of {@link Tester}, e.g. from an IDE, with the
+	 * example directory given as a system property named after the Tester class.
+	 *
+	 * @return a context over all examples directly in that directory
+	 */
+	public static CorpusContext fromSystemProperty() {
+		String base = System.getProperty(Tester.class.getName());
+		if (base == null) {
+			throw new IllegalStateException(
+					"No example directory given, set " + CONFIGURATION_PARAMETER + " or " + Tester.class.getName());
+		}
+		return of(Paths.get(base), List.of());
+	}
+
+	public String id() {
+		return id;
+	}
+
+	public Path base() {
+		return base;
+	}
+
+	public List<Path> projects() {
+		return projects;
+	}
+
+	/**
+	 * @param file the {@link CorpusSnapshot} to load the corpus from, and to update
+	 *             if examples changed. Null to parse all examples.
+	 * @return this
+	 */
+	public synchronized CorpusContext withSnapshot(Path file) {
+		this.snapshot = file;
+		return this;
+	}
+
+	/**
+	 * @param directory where the tests keep the outcome of parsing each query, null
+	 *                  to parse all queries
+	 * @return this
+	 */
+	public synchronized CorpusContext withValidationCache(Path directory) {
+		this.validationCache = directory == null ? null : ValidationCache.open(directory);
+		return this;
+	}
+
+	/**
+	 * @return the validation cache shared by the tests of this context
+	 */
+	public synchronized Optional<ValidationCache> validationCache() {
+		return Optional.ofNullable(validationCache);
+	}
+
+	/**
+	 * @param record whether the per engine tests record their outcomes in an
+	 *               {@link EngineMatrix}
+	 * @return this
+	 */
+	public synchronized CorpusContext withEngineMatrix(boolean record) {
+		this.engineMatrix = record ? new EngineMatrix() : null;
+		return this;
+	}
+
+	public synchronized Optional<EngineMatrix> engineMatrix() {
+		return Optional.ofNullable(engineMatrix);
+	}
+
+	/**
+	 * @return how long the engines took to start in the current run
+	 */
+	public synchronized EngineStartup engineStartup() {
+		return engineStartup;
+	}
+
+	/**
+	 * @return the timings of the tests of the current run, if the tests were run
+	 *         by a JUnit launcher that had the {@link TestTimings} listener
+	 */
+	public synchronized Optional<TestTimings> testTimings() {
+		return Optional.ofNullable(testTimings);
+	}
+
+	/**
+	 * Forgets what an earlier test run with this context recorded.
+	 *
+	 * @param timings the listener recording the tests of the new run
+	 */
+	synchronized void runStarted(TestTimings timings) {
+		this.testTimings = timings;
+		this.engineStartup = new EngineStartup();
+		if (engineMatrix != null) {
+			engineMatrix = new EngineMatrix();
+		}
+		if (validationCache != null) {
+			validationCache.startRun();
+		}
+	}
+
+	/**
+	 * @param shard the part of the examples to use
+	 * @return this
+	 */
+	public synchronized CorpusContext withShard(Shard shard) {
+		this.shard = shard;
+		this.corpus = null;
+		return this;
+	}
+
+	public synchronized Shard shard() {
+		return shard;
+	}
+
+	/**
+	 * @param total       how many example queries may run on endpoints at the same
+	 *                    time
+	 * @param perEndpoint how many of those may run on the same endpoint
+	 * @return this
+	 */
+	public synchronized CorpusContext withQueryConcurrency(int total, int perEndpoint) {
+		this.queryConcurrency = total;
+		this.perEndpointConcurrency = perEndpoint;
+		return this;
+	}
+
+	public synchronized int queryConcurrency() {
+		return queryConcurrency;
+	}
+
+	public synchronized int perEndpointConcurrency() {
+		return perEndpointConcurrency;
+	}
+
+	private synchronized Set<Path> changed() {
+		return changed;
+	}
+
+	/**
+	 * @param changed the files that changed, as absolute normalized paths, null to
+	 *                use all examples
+	 * @return this
+	 * @see ChangedFiles
+	 */
+	public synchronized CorpusContext withChanged(Set<Path> changed) {
+		this.changed = changed;
+		this.selected = null;
+		this.corpus = null;
+		return this;
+	}
+
+	/**
+	 * @return the changed examples, and all examples below a directory with a
+	 *         changed prefixes.ttl. Null if all examples are to be used.
+	 */
+	private synchronized Set<Path> selected() throws IOException {
+		if (changed != null && selected == null) {
+			Set<Path> examples = new HashSet<>();
+			FileIndex index = index();
+			for (Path file : changed) {
+				if ("prefixes.ttl".equals(file.getFileName().toString())) {
+					index.examplesBelow(file.getParent()).forEach(p -> examples.add(normalized(p)));
+				} else {
+					examples.add(file);
+				}
+			}
+			selected = examples;
+		}
+		return selected;
+	}
+
+	private static Path normalized(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * @return the files below the base directory, found in one walk on first use
+	 * @throws IOException if walking the file tree fails
+	 */
+	public synchronized FileIndex index() throws IOException {
+		if (index == null) {
+			index = FileIndex.of(base);
+		}
+		return index;
+	}
+
+	/**
+	 * @return all SPARQL example files (turtle files except prefixes.ttl) in the
+	 *         selected projects and shard
+	 * @throws IOException if walking the file tree fails
+	 */
+	public Stream<Path> sparqlExamples() throws IOException {
+		return allSparqlExamples().filter(inSelection());
+	}
+
+	/**
+	 * @return whether an example file is in the selected shard and, if only
+	 *         changed files are used, selected
+	 */
+	private Predicate<Path> inSelection() throws IOException {
+		Shard inShard = shard();
+		Set<Path> only = selected();
+		return p -> inShard.contains(base, p) && (only == null || only.contains(normalized(p)));
+	}
+
+	private Stream<Path> allSparqlExamples() throws IOException {
+		FileIndex files = index();
+		if (projects.isEmpty()) {
+			return files.examples(base).stream();
+		} else {
+			return projects.stream().flatMap(p -> files.examples(p).stream());
+		}
+	}
+
+	/**
+	 * @return all prefix files below the base directory, in the selected shard and,
+	 *         if only changed files are used, changed
+	 * @throws IOException if walking the file tree fails
+	 */
+	public Stream<Path> allPrefixFiles() throws IOException {
+		Shard inShard = shard();
+		Set<Path> onlyChanged = changed();
+		return index().prefixFilesBelow(base).stream().filter(p -> inShard.contains(base, p))
+				.filter(p -> onlyChanged == null || onlyChanged.contains(normalized(p)));
+	}
+
+	/**
+	 * The examples of the selected shard, or the changed ones, are taken from the
+	 * parsed examples of all selected projects, as {@link #exampleIris()} needs
+	 * those anyway.
+	 *
+	 * @return the parsed examples of the selected projects, shard and changed
+	 *         files, loaded on first use
+	 * @throws IOException if walking the file tree fails
+	 */
+	public synchronized ExampleCorpus corpus() throws IOException {
+		if (corpus == null) {
+			if (Shard.ALL.equals(shard) && changed == null) {
+				corpus = all();
+			} else {
+				Predicate<Path> inSelection = inSelection();
+				corpus = new ExampleCorpus(all().stream().filter(e -> inSelection.test(e.path())).toList());
+			}
+		}
+		return corpus;
+	}
+
+	/**
+	 * Example IRIs must be unique in all selected projects, so when only a shard
+	 * or the changed examples are tested the other examples are indexed as well.
+	 *
+	 * @return the files of each example IRI in the selected projects
+	 * @throws IOException if walking the file tree fails
+	 */
+	public synchronized ExampleIriIndex exampleIris() throws IOException {
+		if (exampleIris == null) {
+			exampleIris = ExampleIriIndex.of(all());
+		}
+		return exampleIris;
+	}
+
+	/**
+	 * @return the parsed examples of all selected projects, whatever the shard or
+	 *         changed files, loaded once on first use
+	 * @throws IOException if walking the file tree fails
+	 */
+	private synchronized ExampleCorpus all() throws IOException {
+		if (all == null) {
+			try (Stream<Path> paths = allSparqlExamples()) {
+				all = load(paths);
+			}
+		}
+		return all;
+	}
+
+	private ExampleCorpus load(Stream<Path> paths) throws IOException {
+		if (snapshot == null) {
+			return ExampleCorpus.load(paths);
+		} else {
+			CorpusSnapshot fromSnapshot = CorpusSnapshot.open(snapshot, base);
+			ExampleCorpus loaded = fromSnapshot.load(paths);
+			fromSnapshot.save();
+			return loaded;
+		}
+	}
+
+	/**
+	 * Unregisters this context.
+	 */
+	@Override
+	public void close() {
+		REGISTERED.remove(id, this);
+	}
+}
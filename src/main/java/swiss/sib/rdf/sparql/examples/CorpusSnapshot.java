@@ -0,0 +1,231 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+/**
+ * The parsed statements of all turtle files of an example directory, stored in
+ * one gzipped binary file so that later runs do not need to parse the turtle
+ * again.
+ *
+ * A file is taken from the snapshot if its size and modification time are
+ * unchanged, or if its content still has the same SHA-256. Otherwise it is
+ * parsed again and the snapshot is updated on {@link #save()}.
+ */
+public class CorpusSnapshot {
+	public static final String FILE_NAME = ".sparql-examples-snapshot";
+
+	private static final int MAGIC = 0x53504558;
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * Only the parsed statements are kept, the turtle is not needed once it is
+	 * parsed and the SHA-256 is enough to see if it changed.
+	 */
+	private record Entry(long size, long modified, String sha256, Model model) {
+	}
+
+	private final Path file;
+	private final Path base;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private volatile boolean changed;
+
+	private CorpusSnapshot(Path file, Path base) {
+		this.file = file;
+		this.base = base;
+	}
+
+	/**
+	 * A snapshot that was written by another version of this tool, or that can not
+	 * be read, is ignored and will be replaced.
+	 *
+	 * @param file the snapshot file, need not exist yet
+	 * @param base the example directory, paths in the snapshot are relative to it
+	 * @return the snapshot
+	 */
+	public static CorpusSnapshot open(Path file, Path base) {
+		CorpusSnapshot snapshot = new CorpusSnapshot(file, base);
+		if (Files.isRegularFile(file)) {
+			try (DataInputStream in = new DataInputStream(
+					new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+				snapshot.read(in);
+			} catch (IOException | RDFParseException e) {
+				System.err.println("Ignoring unreadable snapshot " + file + ": " + e.getMessage());
+				snapshot.entries.clear();
+				snapshot.changed = true;
+			}
+		} else {
+			snapshot.changed = true;
+		}
+		return snapshot;
+	}
+
+	private void read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !Sparql.version().equals(in.readUTF())) {
+			changed = true;
+			return;
+		}
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String key = in.readUTF();
+			long size = in.readLong();
+			long modified = in.readLong();
+			String sha256 = in.readUTF();
+			Model model = Rio.parse(new ByteArrayInputStream(readBytes(in)), RDFFormat.BINARY);
+			entries.put(key, new Entry(size, modified, sha256, model));
+		}
+	}
+
+	/**
+	 * @param paths the example files
+	 * @return the corpus, taking unchanged files from the snapshot
+	 */
+	public ExampleCorpus load(Stream<Path> paths) {
+		return new ExampleCorpus(paths.toList().parallelStream().map(this::example).toList());
+	}
+
+	/**
+	 * @param path a turtle file in the example directory
+	 * @return the parsed file, from the snapshot if it did not change. The model
+	 *         is a copy and may be modified.
+	 */
+	public Example example(Path path) {
+		String key = key(path);
+		BasicFileAttributes attributes;
+		try {
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (IOException e) {
+			return Example.parse(path);
+		}
+		long modified = attributes.lastModifiedTime().toMillis();
+		Entry entry = entries.get(key);
+		if (entry != null && entry.size() == attributes.size() && entry.modified() == modified) {
+			return fromEntry(path, entry);
+		}
+		byte[] content;
+		try {
+			content = Files.readAllBytes(path);
+		} catch (IOException e) {
+			return Example.parse(path);
+		}
+		String sha256 = sha256(content);
+		changed = true;
+		if (entry != null && entry.sha256().equals(sha256)) {
+			entries.put(key, new Entry(content.length, modified, sha256, entry.model()));
+			return fromEntry(path, entry);
+		}
+		Example parsed = Example.parse(path, content);
+		if (parsed.failure() == null) {
+			entries.put(key, new Entry(content.length, modified, sha256, new LinkedHashModel(parsed.model())));
+		} else {
+			entries.remove(key);
+		}
+		return parsed;
+	}
+
+	private static Example fromEntry(Path path, Entry entry) {
+		Model model = new LinkedHashModel(entry.model());
+		return new Example(path, model, ExampleCorpus.queriesIn(model), null);
+	}
+
+	/**
+	 * Writes the snapshot if any file was parsed again. Files that no longer exist
+	 * are dropped from it.
+	 *
+	 * @throws IOException if the snapshot can not be written
+	 */
+	public void save() throws IOException {
+		if (entries.keySet().removeIf(key -> !Files.exists(base.resolve(key)))) {
+			changed = true;
+		}
+		if (!changed) {
+			return;
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(Sparql.version());
+			Map<String, Entry> sorted = new TreeMap<>(entries);
+			out.writeInt(sorted.size());
+			for (Map.Entry<String, Entry> en : sorted.entrySet()) {
+				Entry entry = en.getValue();
+				out.writeUTF(en.getKey());
+				out.writeLong(entry.size());
+				out.writeLong(entry.modified());
+				out.writeUTF(entry.sha256());
+				ByteArrayOutputStream model = new ByteArrayOutputStream();
+				Rio.write(entry.model(), model, RDFFormat.BINARY);
+				writeBytes(out, model.toByteArray());
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		changed = false;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	private String key(Path path) {
+		return base.toAbsolutePath().normalize().relativize(path.toAbsolutePath().normalize()).toString()
+				.replace('\\', '/');
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String sha256(byte[] content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @param paths the turtle files to have in the snapshot
+	 * @return the number of files that are in the snapshot
+	 */
+	int refresh(List<Path> paths) {
+		paths.parallelStream().forEach(this::example);
+		return size();
+	}
+}
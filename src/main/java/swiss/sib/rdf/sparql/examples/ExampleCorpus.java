@@ -0,0 +1,111 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.SHACL;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+
+import swiss.sib.rdf.sparql.examples.vocabularies.SIB;
+
+/**
+ * All example files of a run, read and parsed exactly once.
+ *
+ * The validators for the different SPARQL engines all consume the same parsed
+ * examples instead of each reading and parsing the turtle files themselves.
+ *
+ * @see CorpusContext#corpus()
+ */
+public class ExampleCorpus {
+	/**
+	 * The predicates that link an example to its query string.
+	 */
+	public static final List<IRI> QUERY_PREDICATES = List.of(SHACL.ASK, SHACL.SELECT, SHACL.CONSTRUCT,
+			SIB.DESCRIBE);
+
+	/**
+	 * One parsed example file.
+	 *
+	 * @param path    the turtle file
+	 * @param model   the statements in the file, empty if it could not be parsed
+	 * @param queries the statements linking an example to a query string
+	 * @param failure why the file could not be read or parsed, null if it could
+	 */
+	public record Example(Path path, Model model, List<Statement> queries, Exception failure) {
+
+		public static Example parse(Path path) {
+			byte[] content;
+			try {
+				content = Files.readAllBytes(path);
+			} catch (IOException e) {
+				return new Example(path, new LinkedHashModel(), List.of(), e);
+			}
+			return parse(path, content);
+		}
+
+		public static Example parse(Path path, byte[] content) {
+			RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
+			Model model = new LinkedHashModel();
+			rdfParser.setRDFHandler(new StatementCollector(model));
+			try {
+				rdfParser.parse(new ByteArrayInputStream(content));
+			} catch (RDFParseException | RDFHandlerException | IOException e) {
+				return new Example(path, new LinkedHashModel(), List.of(), e);
+			}
+			return new Example(path, model, queriesIn(model), null);
+		}
+
+		/**
+		 * @return the query strings of this example.
+		 */
+		public Stream<String> queryStrings() {
+			return queries.stream().map(Statement::getObject).map(Value::stringValue);
+		}
+	}
+
+	private final List<Example> examples;
+
+	public ExampleCorpus(List<Example> examples) {
+		this.examples = List.copyOf(examples);
+	}
+
+	/**
+	 * Reads and parses all given files, using all cores. The order of the
+	 * examples is the order of the given paths.
+	 *
+	 * @param paths the example files to load
+	 * @return the loaded corpus
+	 */
+	public static ExampleCorpus load(Stream<Path> paths) {
+		return new ExampleCorpus(paths.toList().parallelStream().map(Example::parse).toList());
+	}
+
+	public List<Example> examples() {
+		return examples;
+	}
+
+	public Stream<Example> stream() {
+		return examples.stream();
+	}
+
+	static List<Statement> queriesIn(Model model) {
+		return QUERY_PREDICATES.stream()
+				.flatMap(p -> StreamSupport.stream(model.getStatements(null, p, null).spliterator(), false))
+				.toList();
+	}
+}
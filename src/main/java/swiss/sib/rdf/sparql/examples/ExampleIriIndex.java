@@ -0,0 +1,98 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SHACL;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+/**
+ * For every example IRI in a corpus the files it is used in. Example IRIs are
+ * the subjects typed sh:SPARQLExecutable, and the subjects of a query. Built in
+ * one pass over the parsed examples, so that IRIs used in more than one file
+ * are found without adding all files to one SHACL store.
+ */
+public final class ExampleIriIndex {
+	private final Map<IRI, List<Path>> files;
+	private final Map<IRI, List<Path>> duplicates = new LinkedHashMap<>();
+	private final Map<Path, Map<IRI, List<Path>>> duplicatesByFile = new HashMap<>();
+
+	private ExampleIriIndex(Map<IRI, List<Path>> files) {
+		this.files = files;
+		files.forEach((iri, in) -> {
+			if (in.size() > 1) {
+				duplicates.put(iri, in);
+				for (Path file : in) {
+					duplicatesByFile.computeIfAbsent(file, f -> new LinkedHashMap<>()).put(iri, in);
+				}
+			}
+		});
+	}
+
+	/**
+	 * @param corpus all examples whose IRIs must be unique
+	 * @return the index
+	 */
+	public static ExampleIriIndex of(ExampleCorpus corpus) {
+		Map<IRI, List<Path>> files = new HashMap<>();
+		for (Example example : corpus.examples()) {
+			for (IRI iri : exampleIris(example)) {
+				files.computeIfAbsent(iri, k -> new ArrayList<>(1)).add(example.path());
+			}
+		}
+		return new ExampleIriIndex(files);
+	}
+
+	private static Set<IRI> exampleIris(Example example) {
+		Set<IRI> iris = new LinkedHashSet<>();
+		for (Statement st : example.model().getStatements(null, RDF.TYPE, SHACL.SPARQL_EXECUTABLE)) {
+			add(iris, st.getSubject());
+		}
+		for (Statement st : example.queries()) {
+			add(iris, st.getSubject());
+		}
+		return iris;
+	}
+
+	// Blank nodes are local to their file, and so always unique
+	private static void add(Set<IRI> iris, Resource subject) {
+		if (subject instanceof IRI iri) {
+			iris.add(iri);
+		}
+	}
+
+	/**
+	 * @param iri an example IRI
+	 * @return the files that use it, empty if none does
+	 */
+	public List<Path> files(IRI iri) {
+		return files.getOrDefault(iri, List.of());
+	}
+
+	/**
+	 * @return the example IRIs used in more than one file, with those files
+	 */
+	public Map<IRI, List<Path>> duplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @param file an example file
+	 * @return the example IRIs of that file that are also used in other files,
+	 *         with all files that use them
+	 */
+	public Map<IRI, List<Path>> duplicatesOf(Path file) {
+		return duplicatesByFile.getOrDefault(file, Map.of());
+	}
+}
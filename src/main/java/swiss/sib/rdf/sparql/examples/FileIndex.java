@@ -0,0 +1,196 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The directories, example files and prefix files below a root directory,
+ * found in one walk over the file tree. The file attributes the walk provides
+ * are used, so no further calls to the file system are needed to answer where
+ * examples are.
+ *
+ * An index shows the tree as it was when it was made, and is kept by whoever
+ * made it, usually a {@link CorpusContext}. Make a new one after adding or
+ * removing example files.
+ */
+public final class FileIndex {
+	private static final String PREFIXES_TTL = "prefixes.ttl";
+	private static final Comparator<Path> BY_FILE_NAME = Comparator.comparing(Path::getFileName);
+
+	private final Path root;
+	// Keyed by the absolute normalized directory, the values are paths as found
+	// by walking from the root as given
+	private final Map<Path, Path> directories = new HashMap<>();
+	private final Map<Path, List<Path>> subDirectories = new HashMap<>();
+	private final Map<Path, List<Path>> examples = new HashMap<>();
+	// All files ending in prefixes.ttl, per directory
+	private final Map<Path, List<Path>> prefixFiles = new HashMap<>();
+
+	private FileIndex(Path root) {
+		this.root = root;
+	}
+
+	/**
+	 * @param root a directory
+	 * @return the index of everything below the root, empty if the root is not a
+	 *         directory
+	 * @throws IOException if walking the file tree fails
+	 */
+	public static FileIndex of(Path root) throws IOException {
+		FileIndex index = new FileIndex(root);
+		if (Files.isDirectory(root)) {
+			index.walk();
+		}
+		return index;
+	}
+
+	private void walk() throws IOException {
+		Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+				new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+						Path key = key(dir);
+						directories.put(key, dir);
+						subDirectories.put(key, new ArrayList<>());
+						examples.put(key, new ArrayList<>());
+						prefixFiles.put(key, new ArrayList<>());
+						if (!dir.equals(root)) {
+							subDirectories.get(key(dir.getParent())).add(dir);
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						if (attrs.isRegularFile()) {
+							String name = file.getFileName().toString();
+							if (name.endsWith(PREFIXES_TTL)) {
+								prefixFiles.get(key(file.getParent())).add(file);
+							} else if (name.endsWith(".ttl")) {
+								examples.get(key(file.getParent())).add(file);
+							}
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+						if (file.equals(root)) {
+							throw exc;
+						}
+						// Symbolic link loops and unreadable entries can not contain examples
+						return FileVisitResult.CONTINUE;
+					}
+				});
+		examples.values().forEach(l -> l.sort(BY_FILE_NAME));
+		subDirectories.values().forEach(l -> l.sort(BY_FILE_NAME));
+		prefixFiles.values().forEach(l -> l.sort(BY_FILE_NAME));
+	}
+
+	private static Path key(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	public Path root() {
+		return root;
+	}
+
+	public boolean isDirectory(Path dir) {
+		return directories.containsKey(key(dir));
+	}
+
+	/**
+	 * @param dir a directory
+	 * @return the example files directly in the directory, sorted by file name
+	 */
+	public List<Path> examples(Path dir) {
+		return examples.getOrDefault(key(dir), List.of());
+	}
+
+	/**
+	 * @param dir a directory
+	 * @return the example files in the directory and all directories below it
+	 */
+	public List<Path> examplesBelow(Path dir) {
+		List<Path> found = new ArrayList<>();
+		for (Path d : directoriesBelow(dir)) {
+			found.addAll(examples(d));
+		}
+		return found;
+	}
+
+	public boolean hasExamples(Path dir) {
+		return !examples(dir).isEmpty();
+	}
+
+	/**
+	 * @param dir a directory
+	 * @return the prefixes.ttl in that directory, if there is one
+	 */
+	public Optional<Path> prefixFile(Path dir) {
+		return prefixFiles.getOrDefault(key(dir), List.of()).stream()
+				.filter(p -> p.getFileName().toString().equals(PREFIXES_TTL)).findFirst();
+	}
+
+	/**
+	 * @param dir a directory
+	 * @return the files ending in prefixes.ttl in the directory and all
+	 *         directories below it
+	 */
+	public List<Path> prefixFilesBelow(Path dir) {
+		List<Path> found = new ArrayList<>();
+		for (Path d : directoriesBelow(dir)) {
+			found.addAll(prefixFiles.getOrDefault(key(d), List.of()));
+		}
+		return found;
+	}
+
+	/**
+	 * @param dir a directory
+	 * @return the directories directly in dir, sorted by name
+	 */
+	public List<Path> subDirectories(Path dir) {
+		return subDirectories.getOrDefault(key(dir), List.of());
+	}
+
+	/**
+	 * @param dir a directory
+	 * @return dir and all directories below it, each directory before the
+	 *         directories it contains
+	 */
+	public List<Path> directoriesBelow(Path dir) {
+		Path start = directories.get(key(dir));
+		if (start == null) {
+			return List.of();
+		}
+		List<Path> found = new ArrayList<>();
+		addDirectoriesBelow(start, found);
+		return found;
+	}
+
+	private void addDirectoriesBelow(Path dir, List<Path> found) {
+		found.add(dir);
+		for (Path sub : subDirectories(dir)) {
+			addDirectoriesBelow(sub, found);
+		}
+	}
+
+	/**
+	 * @return the directories directly below the root, which are the projects
+	 */
+	public List<Path> projects() {
+		return subDirectories(root);
+	}
+}
@@ -2,71 +2,54 @@ package swiss.sib.rdf.sparql.examples;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.stream.Stream;
 
 public class FindFiles {
 
-	public static Path base;
-	public static Collection<Path> projects = Collections.emptyList();
-	
-	
-	public static boolean isTurtleButNotPrefixFile(Path p) {
-		return Files.exists(p) && Files.isRegularFile(p) && p.toUri().getPath().endsWith(".ttl")
-				&& !p.toUri().getPath().endsWith("prefixes.ttl");
-	}
-	
-	private static boolean isTurtleAndPrefixFile(Path p) {
-		return Files.exists(p) && p.toUri().getPath().endsWith("prefixes.ttl")
-				&& Files.isRegularFile(p);
-	}
-
 	/**
-	 * Depends on global state: projects and base that should be set before.
-	 * @return a stream of all SPARQL example files (turtle files except prefixes.ttl)
-	 * @throws IOException if walking the file tree fails
+	 * Lists only the directory itself, use a {@link FileIndex} to find the
+	 * examples in a whole tree.
+	 *
+	 * @param path a directory
+	 * @return the SPARQL example files directly in the directory, sorted by name
+	 * @throws IOException if the directory can not be listed
 	 */
-	public static Stream<Path> sparqlExamples() throws IOException {
-		if (projects.isEmpty()) {
-			return sparqlExamples(getBasePath());
-		} else {
-			return projects.stream().flatMap(p -> {
-				try {
-					return sparqlExamples(p);
-				} catch (IOException e) {
-					throw new RuntimeException(e);
-				}
-			});
-		}
-	}
-	
 	public static Stream<Path> sparqlExamples(Path path) throws IOException {
-		if (Files.isDirectory(path))
-			return Files.list(path).sorted((a,b) -> a.getFileName().compareTo(b.getFileName())).filter(FindFiles::isTurtleButNotPrefixFile);
-		else
-			return Stream.empty();
-	}
-
-	public static Path getBasePath() {
-		if (base == null) {
-			base = Paths.get(System.getProperty(Tester.class.getName()));
+		try (Stream<Path> files = Files.find(path, 1, (p, attrs) -> attrs.isRegularFile()
+				&& p.getFileName().toString().endsWith(".ttl") && !p.getFileName().toString().endsWith("prefixes.ttl"),
+				FileVisitOption.FOLLOW_LINKS)) {
+			return files.sorted(Comparator.comparing(Path::getFileName)).toList().stream();
 		}
-		return base;
 	}
 
-	public static Stream<Path> allPrefixFiles() throws IOException{
-		return Files.walk(getBasePath()).filter(FindFiles::isTurtleAndPrefixFile);
+	/**
+	 * @param index of a directory containing path
+	 * @param path  a directory
+	 * @return all example and prefix files below path, sorted
+	 */
+	public static Stream<Path> allTurtleFiles(FileIndex index, Path path) {
+		return Stream.concat(index.examplesBelow(path).stream(), index.prefixFilesBelow(path).stream()).sorted();
 	}
 
 	public static Path commonPrefixes() throws URISyntaxException {
 		return Paths.get(FindFiles.class.getResource("/prefixes.ttl").toURI());
 	}
 
+	/**
+	 * @param p a directory
+	 * @return the prefixes.ttl in the directory, or an empty stream if it has none
+	 */
 	public static Stream<Path> prefixFile(Path p) {
-		return Stream.of(p.resolve("prefixes.ttl"));
+		Path prefixes = p.resolve("prefixes.ttl");
+		if (Files.isRegularFile(prefixes)) {
+			return Stream.of(prefixes);
+		} else {
+			return Stream.empty();
+		}
 	}
 }
@@ -44,6 +44,7 @@ import picocli.CommandLine;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Spec;
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
 import swiss.sib.rdf.sparql.examples.fixes.Blazegraph;
 import swiss.sib.rdf.sparql.examples.fixes.Federation;
 import swiss.sib.rdf.sparql.examples.fixes.NodeTypes;
@@ -64,6 +65,10 @@ public class Fixer implements Callable<Integer> {
 			"--input-directory" }, paramLabel = "directory containing example files to test", description = "The root directory where the examples and their prefixes can be found.", required = true)
 	private Path inputDirectory;
 
+	@Option(names = {
+			"--snapshot" }, paramLabel = "snapshot file", description = "load the parsed examples from this snapshot, as made by the snapshot command. Changed examples are parsed again and the snapshot is updated")
+	private Path snapshot;
+
 	@Option(names = { "-h", "--help" }, usageHelp = true, description = "display this help message")
 	private boolean usageHelpRequested;
 
@@ -92,11 +97,12 @@ public class Fixer implements Callable<Integer> {
 	private void findFilesToFix() {
 		try {
 			Map<String, String> prefixes = loadPrefixes();
+			CorpusSnapshot fromSnapshot = snapshot == null ? null : CorpusSnapshot.open(snapshot, inputDirectory);
 			try (Stream<Path> sparqlExamples = FindFiles.sparqlExamples(inputDirectory)) {
 				sparqlExamples.forEach(ttl -> {
 					log.info("Looking at:" + ttl);
-					try (FileInputStream in = new FileInputStream(ttl.toFile())) {
-						Model model = parseIntoModel(in);
+					try {
+						Model model = parseIntoModel(ttl, fromSnapshot);
 						IRI queryIri = null;
 						Value query = null;
 						IRI type=null;
@@ -130,11 +136,31 @@ public class Fixer implements Callable<Integer> {
 					}
 				});
 			}
+			if (fromSnapshot != null) {
+				fromSnapshot.save();
+			}
 		} catch (IOException e) {
 			Failure.CANT_READ_INPUT_DIRECTORY.tothrow(e);
 		}
 	}
 
+	private Model parseIntoModel(Path ttl, CorpusSnapshot fromSnapshot) throws IOException {
+		if (fromSnapshot == null) {
+			try (FileInputStream in = new FileInputStream(ttl.toFile())) {
+				return parseIntoModel(in);
+			}
+		}
+		Example example = fromSnapshot.example(ttl);
+		if (example.failure() instanceof RDFParseException e) {
+			throw e;
+		} else if (example.failure() instanceof IOException e) {
+			throw e;
+		} else if (example.failure() != null) {
+			throw new IOException(example.failure());
+		}
+		return new TreeModel(example.model());
+	}
+
 	public Model parseIntoModel(FileInputStream in) throws IOException {
 		Model model = new TreeModel();
 		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
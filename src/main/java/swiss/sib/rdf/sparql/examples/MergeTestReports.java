@@ -0,0 +1,75 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+@Command(name = "merge-test-reports", description = "Combines the status reports written by test --shard runs into one status markdown")
+public class MergeTestReports implements Callable<Integer> {
+	@Spec
+	CommandSpec spec;
+
+	@Option(names = { "-i",
+			"--input" }, paramLabel = "status report", description = "The status reports to combine, as written by test --status-report", required = true, arity = "1..*")
+	private List<Path> inputs;
+
+	@Option(names = { "--status-markdown" }, required = true)
+	private Path statusMarkdown;
+
+	@Option(names = { "--status-report" }, description = "Also write the combined status report to this file")
+	private Path statusReport;
+
+	@Option(names = {
+			"--input-directory" }, paramLabel = "directory containing the example files", description = "Link the tests in the status markdown to the examples in this directory. Without it the links point to an examples directory next to the markdown")
+	private Path inputDirectory;
+
+	@Option(names = { "-h", "--help" }, usageHelp = true, description = "display this help message")
+	private boolean usageHelpRequested;
+
+	@Override
+	public Integer call() {
+		CommandLine commandLine = spec.commandLine();
+		if (commandLine.isUsageHelpRequested()) {
+			commandLine.usage(System.out);
+			return 0;
+		}
+		List<StatusReport> reports = new ArrayList<>();
+		for (Path input : inputs) {
+			try {
+				reports.add(StatusReport.read(input));
+			} catch (IOException e) {
+				System.err.println(e.getMessage());
+				return Failure.CANT_READ_INPUT_DIRECTORY.exitCode();
+			}
+		}
+		StatusReport merged = StatusReport.merge(reports);
+		try {
+			if (statusReport != null) {
+				merged.write(statusReport);
+			}
+			try (BufferedWriter w = Files.newBufferedWriter(statusMarkdown, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.CREATE)) {
+				Tester.TestExecutionAsSummaryMarkdownWriter writer = inputDirectory == null
+						? new Tester.TestExecutionAsSummaryMarkdownWriter()
+						: new Tester.TestExecutionAsSummaryMarkdownWriter(
+								Tester.TestExecutionAsSummaryMarkdownWriter.linkBase(statusMarkdown, inputDirectory));
+				writer.print(merged, w);
+			}
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			return Failure.CANT_WRITE_STATUS_REPORT.exitCode();
+		}
+		return 0;
+	}
+}
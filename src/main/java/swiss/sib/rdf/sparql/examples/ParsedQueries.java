@@ -0,0 +1,74 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.sparql.SPARQLParserFactory;
+
+/**
+ * The RDF4j algebra of the most recently used queries, so that the validators,
+ * the statistics and the mermaid diagrams do not each parse the same query
+ * again. Queries that can not be parsed are remembered as well.
+ *
+ * The returned algebra is shared between all callers, and must only be
+ * visited, never changed.
+ */
+public final class ParsedQueries {
+	// Enough for all queries of the larger example directories
+	private static final int MAXIMUM_SIZE = 8192;
+
+	private record Key(String query, String base) {
+	}
+
+	/**
+	 * @param parsed  the algebra, null if the query could not be parsed
+	 * @param failure why the query could not be parsed, null if it could
+	 */
+	private record Parsed(ParsedQuery parsed, MalformedQueryException failure) {
+	}
+
+	private static final Map<Key, Parsed> CACHE = new LinkedHashMap<>(1024, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Parsed> eldest) {
+			return size() > MAXIMUM_SIZE;
+		}
+	};
+
+	private ParsedQueries() {
+
+	}
+
+	/**
+	 * @param query the SPARQL query
+	 * @param base  the base IRI to resolve relative IRIs in the query against
+	 * @return the parsed query, not to be modified
+	 * @throws MalformedQueryException if the query can not be parsed, also when
+	 *                                 this was found before
+	 */
+	public static ParsedQuery parse(String query, String base) throws MalformedQueryException {
+		Key key = new Key(query, base);
+		Parsed parsed;
+		synchronized (CACHE) {
+			parsed = CACHE.get(key);
+		}
+		if (parsed == null) {
+			// Parse outside of the lock, at worst a query is parsed twice
+			try {
+				parsed = new Parsed(new SPARQLParserFactory().getParser().parseQuery(query, base), null);
+			} catch (MalformedQueryException e) {
+				parsed = new Parsed(null, e);
+			}
+			synchronized (CACHE) {
+				CACHE.put(key, parsed);
+			}
+		}
+		if (parsed.failure() != null) {
+			throw new MalformedQueryException(parsed.failure().getMessage(), parsed.failure());
+		}
+		return parsed.parsed();
+	}
+}
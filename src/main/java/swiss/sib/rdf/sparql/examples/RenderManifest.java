@@ -0,0 +1,124 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers a hash of the inputs that each generated file was rendered from, so
+ * that outputs whose inputs did not change are not rendered and written again.
+ *
+ * The hashes are kept in a plain text file, one line per output with its path
+ * relative to the example directory, a tab and the hash.
+ */
+public class RenderManifest {
+	public static final String FILE_NAME = ".sparql-examples-manifest";
+
+	private final Path file;
+	private final Path base;
+	private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+	private RenderManifest(Path file, Path base) {
+		this.file = file;
+		this.base = base;
+	}
+
+	/**
+	 * @param base the example directory, the manifest is kept in there
+	 * @return the manifest, empty if it did not yet exist
+	 * @throws IOException if an existing manifest can not be read
+	 */
+	public static RenderManifest load(Path base) throws IOException {
+		RenderManifest manifest = new RenderManifest(base.resolve(FILE_NAME), base);
+		if (Files.exists(manifest.file)) {
+			for (String line : Files.readAllLines(manifest.file, StandardCharsets.UTF_8)) {
+				int tab = line.indexOf('\t');
+				if (tab > 0) {
+					manifest.hashes.put(line.substring(0, tab), line.substring(tab + 1));
+				}
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * @param output the file that would be rendered
+	 * @param hash   the hash of the current inputs of that file
+	 * @return true if the output exists and was rendered from the same inputs
+	 */
+	public boolean isCurrent(Path output, String hash) {
+		return hash.equals(hashes.get(key(output))) && Files.exists(output);
+	}
+
+	public void rendered(Path output, String hash) {
+		hashes.put(key(output), hash);
+	}
+
+	public void save() throws IOException {
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (Map.Entry<String, String> en : new TreeMap<>(hashes).entrySet()) {
+				w.append(en.getKey()).append('\t').append(en.getValue());
+				w.newLine();
+			}
+		}
+	}
+
+	private String key(Path output) {
+		return base.relativize(output).toString().replace('\\', '/');
+	}
+
+	/**
+	 * @param parts the inputs, the version of this tool is always included
+	 * @return a hex encoded SHA-256 over all parts
+	 */
+	public static String hash(List<byte[]> parts) {
+		MessageDigest digest = sha256();
+		digest.update(Sparql.version().getBytes(StandardCharsets.UTF_8));
+		for (byte[] part : parts) {
+			// Length prefix so that moving bytes between parts changes the hash
+			digest.update(Integer.toString(part.length).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(part);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	public static String hash(String... parts) {
+		return hash(List.of(parts).stream().map(p -> p.getBytes(StandardCharsets.UTF_8)).toList());
+	}
+
+	/**
+	 * @param path a file that may not exist
+	 * @return the content of the file, empty if it does not exist
+	 */
+	static byte[] contentOrEmpty(Path path) {
+		try {
+			if (Files.isRegularFile(path)) {
+				return Files.readAllBytes(path);
+			}
+			return new byte[0];
+		} catch (IOException e) {
+			throw Failure.CANT_READ_EXAMPLE.tothrow(e);
+		}
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * One of several parts of the examples, so that the tests can be spread over
+ * machines. Which part a file is in depends only on its path relative to the
+ * example directory, so the same file is always in the same shard.
+ *
+ * @param index from 1 up to and including count
+ * @param count the number of shards
+ */
+public record Shard(int index, int count) {
+	public static final Shard ALL = new Shard(1, 1);
+
+	public Shard {
+		if (count < 1 || index < 1 || index > count) {
+			throw new IllegalArgumentException("A shard is k/N with 1 <= k <= N, not " + index + '/' + count);
+		}
+	}
+
+	/**
+	 * @param shard as k/N, e.g. 2/4 for the second of four shards
+	 * @return the shard
+	 * @throws IllegalArgumentException if shard is not of the form k/N
+	 */
+	public static Shard parse(String shard) {
+		int slash = shard.indexOf('/');
+		if (slash < 0) {
+			throw new IllegalArgumentException("A shard is k/N, e.g. 2/4, not " + shard);
+		}
+		try {
+			return new Shard(Integer.parseInt(shard.substring(0, slash).strip()),
+					Integer.parseInt(shard.substring(slash + 1).strip()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("A shard is k/N, e.g. 2/4, not " + shard, e);
+		}
+	}
+
+	/**
+	 * @param base the example directory
+	 * @param file a file in there
+	 * @return if the file belongs to this shard
+	 */
+	public boolean contains(Path base, Path file) {
+		if (count == 1) {
+			return true;
+		}
+		String relative = base.toAbsolutePath().normalize().relativize(file.toAbsolutePath().normalize()).toString()
+				.replace('\\', '/');
+		CRC32 crc = new CRC32();
+		crc.update(relative.getBytes(StandardCharsets.UTF_8));
+		return crc.getValue() % count == index - 1;
+	}
+
+	@Override
+	public String toString() {
+		return index + "/" + count;
+	}
+}
@@ -0,0 +1,52 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+@Command(name = "snapshot", description = "Stores the parsed example files in a binary snapshot, that the convert, test and fix commands can load with --snapshot")
+public class Snapshot implements Callable<Integer> {
+	@Spec
+	CommandSpec spec;
+
+	@Option(names = { "-i",
+			"--input-directory" }, paramLabel = "directory containing example files to snapshot", description = "The root directory where the examples and their prefixes can be found.", required = true)
+	private Path inputDirectory;
+
+	@Option(names = { "-o",
+			"--output" }, paramLabel = "snapshot file", description = "Where to write the snapshot, defaults to "
+					+ CorpusSnapshot.FILE_NAME + " in the input directory")
+	private Path output;
+
+	@Option(names = { "-h", "--help" }, usageHelp = true, description = "display this help message")
+	private boolean usageHelpRequested;
+
+	@Override
+	public Integer call() {
+		CommandLine commandLine = spec.commandLine();
+		if (commandLine.isUsageHelpRequested()) {
+			commandLine.usage(System.out);
+			return 0;
+		}
+		Path file = output == null ? inputDirectory.resolve(CorpusSnapshot.FILE_NAME) : output;
+		CorpusSnapshot snapshot = CorpusSnapshot.open(file, inputDirectory);
+		try (Stream<Path> turtle = FindFiles.allTurtleFiles(FileIndex.of(inputDirectory), inputDirectory)) {
+			List<Path> files = turtle.toList();
+			int stored = snapshot.refresh(files);
+			snapshot.save();
+			System.err.println("Stored " + stored + " of " + files.size() + " files in " + file);
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			return Failure.CANT_READ_INPUT_DIRECTORY.exitCode();
+		}
+		return 0;
+	}
+}
@@ -1,14 +1,43 @@
 package swiss.sib.rdf.sparql.examples;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
 @Command(subcommands = { Converter.class, Tester.class, Fixer.class, Wikibase.class,
-		ImportFromRq.class, ImportFromGitHubIssue.class }, name = "sparql-examples-utils")
+		ImportFromRq.class, ImportFromGitHubIssue.class, Snapshot.class,
+		MergeTestReports.class }, name = "sparql-examples-utils")
 public class Sparql {
+	private static final String DEVELOPMENT_VERSION = "development";
+	private static String version;
+
 	public static void main(String[] args) {
 
 		int exitCode = new CommandLine(new Sparql()).execute(args);
 		System.exit(exitCode);
 	}
+
+	/**
+	 * @return the version of this tool as packaged by maven, or "development"
+	 *         when running from the IDE.
+	 */
+	public static synchronized String version() {
+		if (version == null) {
+			version = DEVELOPMENT_VERSION;
+			try (InputStream is = Sparql.class
+					.getResourceAsStream("/META-INF/maven/swiss.sib.rdf/sparql-examples-utils/pom.properties")) {
+				if (is != null) {
+					Properties properties = new Properties();
+					properties.load(is);
+					version = properties.getProperty("version", DEVELOPMENT_VERSION);
+				}
+			} catch (IOException e) {
+				// Keep the development version
+			}
+		}
+		return version;
+	}
 }
@@ -32,8 +32,6 @@ import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
-import org.eclipse.rdf4j.query.parser.QueryParser;
-import org.eclipse.rdf4j.query.parser.sparql.SPARQLParserFactory;
 import org.jsoup.Jsoup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -266,10 +264,9 @@ public class SparqlInRdfToMd {
 			if (allVoid.containsKey(obj)) {
 				var voidData = allVoid.get(obj);
 				var inUse = allInUse.get(obj);
-				QueryParser parser = new SPARQLParserFactory().getParser();
 				String query = q.getObject().stringValue();
 
-				ParsedQuery pq = parser.parseQuery(query, obj.stringValue());
+				ParsedQuery pq = ParsedQueries.parse(query, obj.stringValue());
 				QueryModelVisitor<RuntimeException> qmv = new AbstractQueryModelVisitor<RuntimeException>() {
 
 					@Override
@@ -302,10 +299,9 @@ public class SparqlInRdfToMd {
 	private static void countInEachQuery(Model ex, Counter counter, Resource queryId, Statement q) {
 		String base = streamOf(ex, q.getSubject(), SchemaDotOrg.TARGET, null).map(Statement::getObject)
 				.filter(Value::isIRI).map(Value::stringValue).findFirst().orElse("https://example.org/");
-		QueryParser parser = new SPARQLParserFactory().getParser();
 		String query = q.getObject().stringValue();
 
-		ParsedQuery pq = parser.parseQuery(query, base);
+		ParsedQuery pq = ParsedQueries.parse(query, base);
 		TupleExpr tq = pq.getTupleExpr();
 		counter.count(tq, queryId);
 	}
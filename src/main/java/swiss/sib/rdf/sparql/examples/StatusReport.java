@@ -0,0 +1,129 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+/**
+ * What the status markdown is made from: the counts of a test run and its
+ * failures. Unlike a {@link TestExecutionSummary} it can be written to a file,
+ * so that the reports of several shards can be merged into one markdown.
+ *
+ * The file is tab separated, a line per count and a line per failure.
+ */
+public record StatusReport(long found, long failed, long aborted, long skipped, long passed,
+		List<Failure> failures) {
+	private static final String FAILURE = "failure";
+	// The segment types JUnit Jupiter uses for dynamic tests and containers
+	private static final String DYNAMIC = "dynamic-";
+
+	/**
+	 * @param group    the test factory the failed test came from
+	 * @param testName the display name of the failed test
+	 * @param message  of the exception, empty if there was none
+	 */
+	public record Failure(String group, String testName, String message) {
+	}
+
+	public static StatusReport of(TestExecutionSummary tes) {
+		List<Failure> failures = tes.getFailures().stream().map(f -> {
+			TestIdentifier ti = f.getTestIdentifier();
+			String group = group(ti);
+			String message = f.getException().getMessage();
+			return new Failure(group, ti.getDisplayName(), message == null ? "" : message);
+		}).toList();
+		return new StatusReport(tes.getTestsFoundCount(), tes.getTestsFailedCount(), tes.getTestsAbortedCount(),
+				tes.getTestsSkippedCount(), tes.getTestsSucceededCount(), failures);
+	}
+
+	/**
+	 * @param test a test
+	 * @return the name of the test factory method the test came from, without its
+	 *         parameter types, e.g. testAllWithBigData(). Also for tests in a
+	 *         dynamic container.
+	 */
+	static String group(TestIdentifier test) {
+		Optional<UniqueId> parent = test.getParentIdObject();
+		if (parent.isEmpty()) {
+			return test.getUniqueId();
+		}
+		List<UniqueId.Segment> segments = parent.get().getSegments();
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			if (!segments.get(i).getType().startsWith(DYNAMIC)) {
+				return withoutParameterTypes(segments.get(i).getValue());
+			}
+		}
+		return test.getUniqueId();
+	}
+
+	static String withoutParameterTypes(String method) {
+		int parameters = method.indexOf('(');
+		return parameters < 0 ? method : method.substring(0, parameters) + "()";
+	}
+
+	/**
+	 * @param reports of test runs over different examples
+	 * @return one report with the counts added and all failures
+	 */
+	public static StatusReport merge(List<StatusReport> reports) {
+		long found = 0, failed = 0, aborted = 0, skipped = 0, passed = 0;
+		List<Failure> failures = new ArrayList<>();
+		for (StatusReport report : reports) {
+			found += report.found();
+			failed += report.failed();
+			aborted += report.aborted();
+			skipped += report.skipped();
+			passed += report.passed();
+			failures.addAll(report.failures());
+		}
+		return new StatusReport(found, failed, aborted, skipped, passed, failures);
+	}
+
+	public void write(Path file) throws IOException {
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writeCount(w, "found", found);
+			writeCount(w, "failed", failed);
+			writeCount(w, "aborted", aborted);
+			writeCount(w, "skipped", skipped);
+			writeCount(w, "passed", passed);
+			for (Failure failure : failures) {
+				w.append(FAILURE).append('\t').append(Tsv.escape(failure.group())).append('\t')
+						.append(Tsv.escape(failure.testName())).append('\t').append(Tsv.escape(failure.message()));
+				w.newLine();
+			}
+		}
+	}
+
+	private static void writeCount(BufferedWriter w, String name, long count) throws IOException {
+		w.append(name).append('\t').append(Long.toString(count));
+		w.newLine();
+	}
+
+	public static StatusReport read(Path file) throws IOException {
+		long found = 0, failed = 0, aborted = 0, skipped = 0, passed = 0;
+		List<Failure> failures = new ArrayList<>();
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			String[] fields = line.split("\t", -1);
+			switch (fields[0]) {
+			case "found" -> found = Long.parseLong(fields[1]);
+			case "failed" -> failed = Long.parseLong(fields[1]);
+			case "aborted" -> aborted = Long.parseLong(fields[1]);
+			case "skipped" -> skipped = Long.parseLong(fields[1]);
+			case "passed" -> passed = Long.parseLong(fields[1]);
+			case FAILURE -> failures.add(new Failure(Tsv.unescape(fields[1]), Tsv.unescape(fields[2]),
+					Tsv.unescape(fields[3])));
+			default -> throw new IOException("Not a status report line in " + file + ": " + line);
+			}
+		}
+		return new StatusReport(found, failed, aborted, skipped, passed, failures);
+	}
+}
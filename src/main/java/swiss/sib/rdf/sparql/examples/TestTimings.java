@@ -0,0 +1,138 @@
+package swiss.sib.rdf.sparql.examples;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Records how long each test took, and how long each test factory ran from
+ * start to end. Registered with the JUnit launcher through META-INF/services,
+ * so that it also sees the tests run by the ConsoleLauncher of the tester. When
+ * a test plan starts, the listener gives itself to the {@link CorpusContext}
+ * that the plan tests, so each corpus gets the timings of its own run.
+ */
+public final class TestTimings implements TestExecutionListener {
+	// The segment type JUnit Jupiter uses for @TestFactory methods
+	private static final String TEST_FACTORY = "test-factory";
+
+	/**
+	 * @param group    the test factory the test came from
+	 * @param testName the display name of the test, e.g. the example file
+	 * @param nanos    from start to end of the test
+	 */
+	public record Timing(String group, String testName, long nanos) {
+	}
+
+	/**
+	 * @param group     the test factory
+	 * @param tests     number of tests it made
+	 * @param testNanos the time of all its tests added up
+	 * @param wallNanos from start to end of the factory and all its tests
+	 */
+	public record GroupTiming(String group, long tests, long testNanos, long wallNanos) {
+	}
+
+	private final Map<String, Long> started = new ConcurrentHashMap<>();
+	private final Queue<Timing> tests = new ConcurrentLinkedQueue<>();
+	private final Map<String, Long> factories = new ConcurrentHashMap<>();
+
+	@Override
+	public void testPlanExecutionStarted(TestPlan testPlan) {
+		start(testPlan.getConfigurationParameters().get(CorpusContext.CONFIGURATION_PARAMETER));
+	}
+
+	/**
+	 * @param corpus the id of the context the test plan tests, if it has one
+	 */
+	void start(Optional<String> corpus) {
+		started.clear();
+		tests.clear();
+		factories.clear();
+		corpus.flatMap(CorpusContext::registered).ifPresent(c -> c.runStarted(this));
+	}
+
+	@Override
+	public void executionStarted(TestIdentifier testIdentifier) {
+		if (testIdentifier.isTest() || isFactory(testIdentifier)) {
+			started.put(testIdentifier.getUniqueId(), System.nanoTime());
+		}
+	}
+
+	@Override
+	public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+		Long start = started.remove(testIdentifier.getUniqueId());
+		if (start == null) {
+			return;
+		}
+		long nanos = System.nanoTime() - start;
+		if (testIdentifier.isTest()) {
+			tests.add(new Timing(StatusReport.group(testIdentifier), testIdentifier.getDisplayName(), nanos));
+		} else {
+			String factory = testIdentifier.getUniqueIdObject().getLastSegment().getValue();
+			factories.put(StatusReport.withoutParameterTypes(factory), nanos);
+		}
+	}
+
+	private static boolean isFactory(TestIdentifier testIdentifier) {
+		return TEST_FACTORY.equals(testIdentifier.getUniqueIdObject().getLastSegment().getType());
+	}
+
+	/**
+	 * @param n how many
+	 * @return the n slowest tests, slowest first
+	 */
+	public List<Timing> slowest(int n) {
+		return tests.stream().sorted(Comparator.comparingLong(Timing::nanos).reversed()).limit(n).toList();
+	}
+
+	/**
+	 * @return per test factory, in the order they finished
+	 */
+	public List<GroupTiming> groups() {
+		Map<String, long[]> perGroup = new LinkedHashMap<>();
+		for (Timing timing : tests) {
+			long[] sum = perGroup.computeIfAbsent(timing.group(), g -> new long[2]);
+			sum[0]++;
+			sum[1] += timing.nanos();
+		}
+		return perGroup.entrySet().stream().map(e -> new GroupTiming(e.getKey(), e.getValue()[0],
+				e.getValue()[1], factories.getOrDefault(e.getKey(), 0L))).toList();
+	}
+
+	/**
+	 * Writes all test timings as comma separated values, with a header line.
+	 *
+	 * @param file to write to
+	 * @throws IOException if the file can not be written
+	 */
+	public void writeCsv(Path file) throws IOException {
+		try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			w.append("group,test,nanos");
+			w.newLine();
+			for (Timing timing : tests) {
+				w.append(quoted(timing.group())).append(',').append(quoted(timing.testName())).append(',')
+						.append(Long.toString(timing.nanos()));
+				w.newLine();
+			}
+		}
+	}
+
+	private static String quoted(String value) {
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -10,23 +10,31 @@ import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.platform.console.ConsoleLauncher;
 import org.junit.platform.console.ConsoleLauncherExecutionResult;
-import org.junit.platform.engine.UniqueId;
-import org.junit.platform.launcher.TestIdentifier;
-import org.junit.platform.launcher.listeners.TestExecutionSummary;
 
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.ITypeConverter;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Spec;
+import picocli.CommandLine.TypeConversionException;
+import swiss.sib.rdf.sparql.examples.TestTimings.GroupTiming;
+import swiss.sib.rdf.sparql.examples.TestTimings.Timing;
+import swiss.sib.rdf.sparql.examples.tests.EngineStartup;
+import swiss.sib.rdf.sparql.examples.tests.EngineMatrix.Matrix;
+import swiss.sib.rdf.sparql.examples.tests.EngineMatrix.Outcome;
+import swiss.sib.rdf.sparql.examples.tests.EngineMatrix.Row;
+import swiss.sib.rdf.sparql.examples.tests.ShaclMode;
+import swiss.sib.rdf.sparql.examples.tests.SparqlEngine;
 import swiss.sib.rdf.sparql.examples.tests.ValidateSparqlExamplesTest;
 
 @Command(name = "test", description = "Tests the example files")
@@ -55,11 +63,59 @@ public class Tester implements Callable<Integer> {
 
 	@Option(names = { "--also-run-python-tests" }, defaultValue = "true", description = "Also run the the Python and RDFLib tests. This is the default, but can be disabled.")
 	private boolean alsoRunPythonTests = true;
+
+	@Option(names = { "--also-run-blazegraph-tests" }, defaultValue = "true", description = "Also parse the queries with Blazegraph. This is the default, but can be disabled.")
+	private boolean alsoRunBlazegraphTests = true;
 	
+	@Option(names = {
+			"--snapshot" }, paramLabel = "snapshot file", description = "load the parsed examples from this snapshot, as made by the snapshot command. Changed examples are parsed again and the snapshot is updated")
+	private Path snapshot;
+
+	@Option(names = {
+			"--validation-cache" }, paramLabel = "directory", description = "keep whether each engine could parse each query in this directory, so that later runs only parse new or changed queries")
+	private Path validationCache;
+
 	@Option(names = { "--status-markdown" })
 	private File statusMarkdown;
 
-	
+	@Option(names = {
+			"--status-report" }, description = "Also write the counts and failures to this file, so that the reports of several shards can be combined with the merge-test-reports command")
+	private File statusReport;
+
+	@Option(names = {
+			"--shard" }, paramLabel = "k/N", converter = ShardConverter.class, description = "Only test the k-th of N parts of the examples, chosen by a hash of their path")
+	private Shard shard = Shard.ALL;
+
+	@Option(names = {
+			"--changed-since" }, paramLabel = "git ref", description = "Only test the examples that changed since the merge base of this commit, branch or tag and HEAD, according to the local git repository of the input directory. A changed prefixes.ttl selects all examples below its directory")
+	private String changedSince;
+
+	@Option(names = {
+			"--parallelism" }, paramLabel = "threads", defaultValue = "1", description = "Run the tests of the examples on this many threads. The default of 1 runs them one after the other")
+	private int parallelism = 1;
+
+	@Option(names = {
+			"--slowest" }, paramLabel = "N", defaultValue = "20", description = "List this many of the slowest tests in the status markdown. All test times are written to a csv file next to it")
+	private int slowest = 20;
+
+	@Option(names = {
+			"--shacl" }, defaultValue = "ISOLATED", description = "How the examples are validated with SHACL: ${COMPLETION-CANDIDATES}. ISOLATED validates each file in its own store in parallel, SHARED adds all files to one store, BULK validates all files in one transaction")
+	private ShaclMode shaclMode = ShaclMode.ISOLATED;
+
+	@Option(names = {
+			"--query-concurrency" }, paramLabel = "queries", defaultValue = ""
+					+ CorpusContext.DEFAULT_QUERY_CONCURRENCY, description = "When running the example queries, run at most this many at the same time")
+	private int queryConcurrency = CorpusContext.DEFAULT_QUERY_CONCURRENCY;
+
+	@Option(names = {
+			"--per-endpoint-concurrency" }, paramLabel = "queries", defaultValue = ""
+					+ CorpusContext.DEFAULT_PER_ENDPOINT_CONCURRENCY, description = "When running the example queries, run at most this many at the same time on one endpoint")
+	private int perEndpointConcurrency = CorpusContext.DEFAULT_PER_ENDPOINT_CONCURRENCY;
+
+	@Option(names = {
+			"--engine-matrix" }, description = "Add which engine accepted which example in the tests, and how long that took, to the status markdown")
+	private boolean engineMatrix;
+
 
 	@Override
 	public Integer call() throws Exception {
@@ -101,10 +157,25 @@ public class Tester implements Callable<Integer> {
 	}
 
 	private int test(Stream<Path> paths) throws Exception {
-		FindFiles.base = inputDirectory;
-		FindFiles.projects = paths.collect(Collectors.toList());
-		List<String> standardOptions = List.of("--fail-if-no-tests", "--include-engine", "junit-jupiter",
-				"--select-package", ValidateSparqlExamplesTest.class.getPackageName());
+		try (CorpusContext context = CorpusContext.of(inputDirectory, paths.collect(Collectors.toList()))) {
+			context.withSnapshot(snapshot).withValidationCache(validationCache).withShard(shard)
+					.withChanged(changed()).withQueryConcurrency(queryConcurrency, perEndpointConcurrency)
+					.withEngineMatrix(engineMatrix);
+			return test(context);
+		}
+	}
+
+	private int test(CorpusContext context) throws Exception {
+		List<String> standardOptions = new ArrayList<>(List.of("--include-engine", "junit-jupiter",
+				"--select-package", ValidateSparqlExamplesTest.class.getPackageName(), "--config",
+				CorpusContext.CONFIGURATION_PARAMETER + "=" + context.register()));
+		if (changedSince == null) {
+			// When only changed examples are tested, there may be none
+			standardOptions.add(0, "--fail-if-no-tests");
+		}
+		if (parallelism > 1) {
+			standardOptions.addAll(parallel(parallelism));
+		}
 		if (!alsoRunSlowTests) {
 			standardOptions = exclude(standardOptions, "SlowTest");
 		}
@@ -112,21 +183,92 @@ public class Tester implements Callable<Integer> {
 			standardOptions = exclude(standardOptions, "VoIDTest");
 		}
 		if (!alsoRunPythonTests) {
-			standardOptions = exclude(standardOptions, "PythonTest");
+			standardOptions = exclude(standardOptions, SparqlEngine.RDFLIB.tag());
+		}
+		if (!alsoRunBlazegraphTests) {
+			standardOptions = exclude(standardOptions, SparqlEngine.BLAZEGRAPH.tag());
+		}
+		for (ShaclMode mode : ShaclMode.values()) {
+			if (mode != shaclMode) {
+				standardOptions = exclude(standardOptions, mode.tag());
+			}
 		}
 		ConsoleLauncherExecutionResult execute = ConsoleLauncher.execute(System.out, System.err,
 				(String[]) standardOptions.toArray(new String[0]));
+		if (statusReport != null && execute.getTestExecutionSummary().isPresent()) {
+			StatusReport.of(execute.getTestExecutionSummary().get()).write(statusReport.toPath());
+		}
+		TestTimings timings = context.testTimings().orElse(null);
+		EngineStartup startup = context.engineStartup();
 		if (statusMarkdown != null && execute.getTestExecutionSummary().isPresent()) {
 			try (BufferedWriter w = Files.newBufferedWriter(statusMarkdown.toPath(),
 					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE)) {
-				TestExecutionSummary tes = execute.getTestExecutionSummary().get();
-				new TestExecutionAsSummaryMarkdownWriter().print(tes, w);
+				StatusReport tes = StatusReport.of(execute.getTestExecutionSummary().get());
+				TestExecutionAsSummaryMarkdownWriter writer = new TestExecutionAsSummaryMarkdownWriter(
+						TestExecutionAsSummaryMarkdownWriter.linkBase(statusMarkdown.toPath(), inputDirectory));
+				writer.print(tes, w);
+				if (context.engineMatrix().isPresent()) {
+					writer.printEngineMatrix(w, context.engineMatrix().get().matrix());
+				}
+				writer.printEngineStartup(w, startup.startupNanos());
+				if (timings != null) {
+					writer.printTimings(w, timings, slowest);
+				}
+			}
+			if (timings != null) {
+				timings.writeCsv(timingsCsv(statusMarkdown.toPath()));
 			}
 		}
+		startup.startupNanos().forEach((engine, nanos) -> System.out
+				.println("Starting " + engine.label() + " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms"));
 		return execute.getExitCode();
 
 	}
 
+	private Set<Path> changed() {
+		if (changedSince == null) {
+			return null;
+		}
+		try {
+			Set<Path> changed = ChangedFiles.since(inputDirectory, changedSince);
+			System.out.println(changed.size() + " files changed since " + changedSince);
+			return changed;
+		} catch (IOException e) {
+			throw new NeedToStopException(e, Failure.CANT_READ_INPUT_DIRECTORY);
+		}
+	}
+
+	/**
+	 * A malformed shard is a usage error, not a failing test.
+	 */
+	static final class ShardConverter implements ITypeConverter<Shard> {
+		@Override
+		public Shard convert(String value) {
+			try {
+				return Shard.parse(value);
+			} catch (IllegalArgumentException e) {
+				throw new TypeConversionException(e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * @return status.md becomes status-timings.csv in the same directory
+	 */
+	static Path timingsCsv(Path statusMarkdown) {
+		String name = statusMarkdown.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		return statusMarkdown.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "-timings.csv");
+	}
+
+	private static List<String> parallel(int threads) {
+		return List.of("--config", "junit.jupiter.execution.parallel.enabled=true", "--config",
+				"junit.jupiter.execution.parallel.mode.default=concurrent", "--config",
+				"junit.jupiter.execution.parallel.mode.classes.default=concurrent", "--config",
+				"junit.jupiter.execution.parallel.config.strategy=fixed", "--config",
+				"junit.jupiter.execution.parallel.config.fixed.parallelism=" + threads);
+	}
+
 	private List<String> exclude(List<String> standardOptions, String tag) {
 		List<String> copyOfOptions= new ArrayList<>(standardOptions);
 		copyOfOptions.add("--exclude-tag");
@@ -134,25 +276,47 @@ public class Tester implements Callable<Integer> {
 		return copyOfOptions;
 	}
 
-	private static class TestExecutionAsSummaryMarkdownWriter {
-		public void print(TestExecutionSummary tes, BufferedWriter w) throws IOException {
-			Map<String, List<TestExecutionSummary.Failure>> collect = tes.getFailures().stream()
-					.collect(Collectors.groupingBy((f) -> {
-						TestIdentifier ti = f.getTestIdentifier();
-						Optional<UniqueId> opid = ti.getParentIdObject();
-						if (opid.isPresent()) {
-							return opid.get().getLastSegment().getValue();
-						}
-						return ti.getUniqueId();
-					}));
+	static class TestExecutionAsSummaryMarkdownWriter {
+		private final String linkBase;
+
+		TestExecutionAsSummaryMarkdownWriter() {
+			this("examples");
+		}
+
+		/**
+		 * @param linkBase where the example files are relative to the markdown, empty
+		 *                 if they are in the same directory
+		 */
+		TestExecutionAsSummaryMarkdownWriter(String linkBase) {
+			this.linkBase = linkBase;
+		}
+
+		/**
+		 * @param statusMarkdown the markdown file that links to the examples
+		 * @param inputDirectory the example directory
+		 * @return the link base of the examples as seen from the markdown file
+		 */
+		static String linkBase(Path statusMarkdown, Path inputDirectory) {
+			Path from = statusMarkdown.toAbsolutePath().normalize().getParent();
+			return from.relativize(inputDirectory.toAbsolutePath().normalize()).toString().replace('\\', '/');
+		}
+
+		private String link(String name) {
+			String target = linkBase.isEmpty() ? name : linkBase + '/' + name;
+			return "[" + name + "](" + target + ")";
+		}
+
+		public void print(StatusReport tes, BufferedWriter w) throws IOException {
+			Map<String, List<StatusReport.Failure>> collect = tes.failures().stream()
+					.collect(Collectors.groupingBy(StatusReport.Failure::group));
 			printMarkdownSummary(w, tes);
 			printFailureRateComparedToBlazeGraph(w, collect);
 			printFailures(w, collect);
 		}
 
-		public void printFailures(BufferedWriter w, Map<String, List<TestExecutionSummary.Failure>> collect)
+		public void printFailures(BufferedWriter w, Map<String, List<StatusReport.Failure>> collect)
 				throws IOException {
-			for (Map.Entry<String, List<TestExecutionSummary.Failure>> gf : collect.entrySet()) {
+			for (Map.Entry<String, List<StatusReport.Failure>> gf : collect.entrySet()) {
 				w.append("# Failures " + gf.getKey() + " (" + gf.getValue().size() + ")");
 				w.newLine();
 				w.append("| test name | exception |");
@@ -160,10 +324,10 @@ public class Tester implements Callable<Integer> {
 				w.append("| ---- | ---- |");
 				w.newLine();
 				for (var failure : gf.getValue()) {
-					String dn = failure.getTestIdentifier().getDisplayName();
-					w.append("| [").append(dn).append("](examples/").append(dn).append(") | ");
-					String em = failure.getException().getMessage();
-					if (em == null) {
+					String dn = failure.testName();
+					w.append("| ").append(link(dn)).append(NC);
+					String em = failure.message();
+					if (em.isEmpty()) {
 						w.append(" ");
 					} else {
 						em = em.replace('\n', ' ').replace('\r', ' ').replace("|", "\\_");
@@ -181,16 +345,16 @@ public class Tester implements Callable<Integer> {
 		}
 
 		public void printFailureRateComparedToBlazeGraph(BufferedWriter w,
-				Map<String, List<TestExecutionSummary.Failure>> collect) throws IOException {
+				Map<String, List<StatusReport.Failure>> collect) throws IOException {
 			w.append("# Summary test failures compared to blazegraph");
 			w.newLine();
 			if (collect.containsKey("testAllWithBigData()")) {
-				List<TestExecutionSummary.Failure> bigdata = collect.get("testAllWithBigData()");
+				List<StatusReport.Failure> bigdata = collect.get("testAllWithBigData()");
 				w.append("| test group | failed | compared to blazegraph |");
 				w.newLine();
 				w.append("| ---- | ---- | ---- |");
 				w.newLine();
-				for (Map.Entry<String, List<TestExecutionSummary.Failure>> gf : collect.entrySet()) {
+				for (Map.Entry<String, List<StatusReport.Failure>> gf : collect.entrySet()) {
 					if (!gf.getKey().equals("testAllWithBigData()") && gf.getKey().startsWith("testAllWith")) {
 						w.append(NC);
 						w.append(gf.getKey());
@@ -203,7 +367,7 @@ public class Tester implements Callable<Integer> {
 					}
 				}
 			} else {
-				for (Map.Entry<String, List<TestExecutionSummary.Failure>> gf : collect.entrySet()) {
+				for (Map.Entry<String, List<StatusReport.Failure>> gf : collect.entrySet()) {
 					w.append("# Summary " + gf.getKey() + " (" + gf.getValue().size() + ")");
 					w.newLine();
 					w.append("");
@@ -214,7 +378,7 @@ public class Tester implements Callable<Integer> {
 			w.newLine();
 		}
 
-		public void printMarkdownSummary(BufferedWriter w, TestExecutionSummary tes) throws IOException {
+		public void printMarkdownSummary(BufferedWriter w, StatusReport tes) throws IOException {
 			w.append("# Summary regarding test failures");
 			w.newLine();
 			w.newLine();
@@ -222,11 +386,11 @@ public class Tester implements Callable<Integer> {
 			w.newLine();
 			w.append("| ---- | ---- | ---- |");
 			w.newLine();
-			long found = tes.getTestsFoundCount();
-			long failed = tes.getTestsFailedCount();
-			long aborted = tes.getTestsAbortedCount();
-			long skipped = tes.getTestsSkippedCount();
-			long passed = tes.getTestsSucceededCount();
+			long found = tes.found();
+			long failed = tes.failed();
+			long aborted = tes.aborted();
+			long skipped = tes.skipped();
+			long passed = tes.passed();
 			w.append("| found | ").append(Long.toString(found)).append(NC).append("100%|");
 			w.newLine();
 			w.append("| failed | ").append(Long.toString(failed)).append(NC).append(percentage(failed, found))
@@ -244,6 +408,94 @@ public class Tester implements Callable<Integer> {
 			w.newLine();
 		}
 
+		public void printEngineMatrix(BufferedWriter w, Matrix matrix) throws IOException {
+			w.append("# Engine compatibility");
+			w.newLine();
+			w.newLine();
+			w.append("| engine | passed | failed | time |");
+			w.newLine();
+			w.append("| ---- | ---- | ---- | ---- |");
+			w.newLine();
+			for (SparqlEngine engine : matrix.engines()) {
+				w.append("| ").append(engine.label()).append(NC).append(Long.toString(matrix.passed(engine)))
+						.append(NC).append(Long.toString(matrix.failed(engine))).append(NC)
+						.append(millis(matrix.nanos(engine))).append(NC);
+				w.newLine();
+			}
+			w.newLine();
+			w.append("| example |");
+			for (SparqlEngine engine : matrix.engines()) {
+				w.append(' ').append(engine.label()).append(" |");
+			}
+			w.newLine();
+			w.append("| ---- |");
+			for (int i = 0; i < matrix.engines().size(); i++) {
+				w.append(" ---- |");
+			}
+			w.newLine();
+			for (Row row : matrix.rows()) {
+				w.append("| ").append(link(row.name())).append(NC);
+				for (SparqlEngine engine : matrix.engines()) {
+					Outcome outcome = row.outcomes().get(engine);
+					if (outcome == null) {
+						w.append("-").append(NC);
+					} else {
+						w.append(outcome.passed() ? "pass " : "fail ").append(millis(outcome.nanos())).append(NC);
+					}
+				}
+				w.newLine();
+			}
+			w.newLine();
+		}
+
+		public void printEngineStartup(BufferedWriter w, Map<SparqlEngine, Long> startupNanos) throws IOException {
+			w.append("# Engine startup");
+			w.newLine();
+			w.newLine();
+			w.append("| engine | startup |");
+			w.newLine();
+			w.append("| ---- | ---- |");
+			w.newLine();
+			for (Map.Entry<SparqlEngine, Long> en : startupNanos.entrySet()) {
+				w.append("| ").append(en.getKey().label()).append(NC).append(millis(en.getValue())).append(NC);
+				w.newLine();
+			}
+			w.newLine();
+		}
+
+		public void printTimings(BufferedWriter w, TestTimings timings, int slowest) throws IOException {
+			w.append("# Time per test group");
+			w.newLine();
+			w.newLine();
+			w.append("| test group | tests | time of tests | wall time |");
+			w.newLine();
+			w.append("| ---- | ---- | ---- | ---- |");
+			w.newLine();
+			for (GroupTiming group : timings.groups()) {
+				w.append("| ").append(group.group()).append(NC).append(Long.toString(group.tests())).append(NC)
+						.append(millis(group.testNanos())).append(NC).append(millis(group.wallNanos())).append(NC);
+				w.newLine();
+			}
+			w.newLine();
+			w.append("# Slowest " + slowest + " tests");
+			w.newLine();
+			w.newLine();
+			w.append("| test name | test group | time |");
+			w.newLine();
+			w.append("| ---- | ---- | ---- |");
+			w.newLine();
+			for (Timing timing : timings.slowest(slowest)) {
+				w.append("| ").append(link(timing.testName())).append(NC).append(timing.group())
+						.append(NC).append(millis(timing.nanos())).append(NC);
+				w.newLine();
+			}
+			w.newLine();
+		}
+
+		private String millis(long nanos) {
+			return TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+		}
+
 		public String percentage(long part, long whole) {
 			if (part > 0) {
 				return NumberFormat.getPercentInstance().format((part / (double) whole));
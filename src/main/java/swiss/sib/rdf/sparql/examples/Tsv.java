@@ -0,0 +1,44 @@
+package swiss.sib.rdf.sparql.examples;
+
+/**
+ * Escaping of values in the tab separated files this tool writes, so that a
+ * value never contains a tab or line break.
+ */
+public final class Tsv {
+	private Tsv() {
+
+	}
+
+	public static String escape(String value) {
+		StringBuilder escaped = new StringBuilder(value.length());
+		for (char c : value.toCharArray()) {
+			switch (c) {
+			case '\\' -> escaped.append("\\\\");
+			case '\t' -> escaped.append("\\t");
+			case '\n' -> escaped.append("\\n");
+			case '\r' -> escaped.append("\\r");
+			default -> escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	public static String unescape(String escaped) {
+		StringBuilder value = new StringBuilder(escaped.length());
+		for (int i = 0; i < escaped.length(); i++) {
+			char c = escaped.charAt(i);
+			if (c == '\\' && i + 1 < escaped.length()) {
+				char n = escaped.charAt(++i);
+				value.append(switch (n) {
+				case 't' -> '\t';
+				case 'n' -> '\n';
+				case 'r' -> '\r';
+				default -> n;
+				});
+			} else {
+				value.append(c);
+			}
+		}
+		return value.toString();
+	}
+}
@@ -3,9 +3,6 @@ package swiss.sib.rdf.sparql.examples.fixes;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.eclipse.rdf4j.query.parser.QueryParser;
-import org.eclipse.rdf4j.query.parser.sparql.SPARQLParserFactory;
-
 import swiss.sib.rdf.sparql.examples.Fixer.Fixed;
 import swiss.sib.rdf.sparql.examples.tests.CreateTestWithRDF4jMethods;
 
@@ -13,8 +10,6 @@ import swiss.sib.rdf.sparql.examples.tests.CreateTestWithRDF4jMethods;
  * A class to fix federation metadata.
  */
 public class Federation {
-	private static final QueryParser PARSER = new SPARQLParserFactory().getParser();
-
 	private Federation() {
 
 	}
@@ -33,7 +28,7 @@ public class Federation {
 		}
 		try {
 			Set<String> federationPartners = new HashSet<>();
-			CreateTestWithRDF4jMethods.extractedServiceIRIsFromOneQuery(PARSER, federationPartners, original);
+			CreateTestWithRDF4jMethods.extractedServiceIRIsFromOneQuery(federationPartners, original);
 
 			return new Fixed(prior.changed(), prior.fixed(), prior.original(), federationPartners);
 		} catch (IllegalArgumentException e) {
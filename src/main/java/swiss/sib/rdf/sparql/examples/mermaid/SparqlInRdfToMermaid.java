@@ -24,10 +24,9 @@ import org.eclipse.rdf4j.model.vocabulary.SHACL;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
-import org.eclipse.rdf4j.query.parser.QueryParser;
-import org.eclipse.rdf4j.query.parser.sparql.SPARQLParserFactory;
 import org.slf4j.LoggerFactory;
 
+import swiss.sib.rdf.sparql.examples.ParsedQueries;
 import swiss.sib.rdf.sparql.examples.vocabularies.SIB;
 import swiss.sib.rdf.sparql.examples.vocabularies.SchemaDotOrg;
 
@@ -82,8 +81,7 @@ public class SparqlInRdfToMermaid {
 	}
 
 	private static void draw(List<String> rq, String query, String base, Map<String, String> iriPrefixes) {
-		QueryParser parser = new SPARQLParserFactory().getParser();
-		ParsedQuery pq = parser.parseQuery(query, base);
+		ParsedQuery pq = ParsedQueries.parse(query, base);
 		TupleExpr tq = pq.getTupleExpr();
 
 		Map<Value, String> constantKeys = new HashMap<>();
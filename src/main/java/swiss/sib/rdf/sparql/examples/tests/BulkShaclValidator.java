@@ -0,0 +1,197 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.rdf4j.common.exception.ValidationException;
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.RDF4J;
+import org.eclipse.rdf4j.model.vocabulary.SHACL;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.eclipse.rdf4j.sail.shacl.ShaclSail;
+
+import swiss.sib.rdf.sparql.examples.tests.SpexShapes.Report;
+
+/**
+ * Validates all example files at once: every file is added in its own named
+ * graph to one store, in a single transaction, so SHACL validation runs once
+ * for the whole corpus. The results of the validation report are then given
+ * to the files that have their focus node as a subject.
+ *
+ * The files are parsed in parallel on the validator's own threads, and the
+ * store is validated once they are all parsed. All of that is started when the
+ * validator is made, the tests only wait for the outcome. Unlike validating each
+ * file on its own, this also finds example IRIs used in more than one file, as
+ * their statements end up on one subject. Close to stop the threads.
+ */
+final class BulkShaclValidator implements AutoCloseable {
+	/**
+	 * @param reports   per file that is not valid, why not
+	 * @param unmatched the results of the validation report that are in no file
+	 */
+	private record Outcome(Map<Path, Report> reports, List<String> unmatched) {
+	}
+
+	private final ExecutorService executor;
+	private final CompletableFuture<Outcome> outcome;
+
+	/**
+	 * @param files all files that will be validated
+	 */
+	BulkShaclValidator(List<Path> files) {
+		this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				Thread.ofPlatform().name("shacl-bulk-", 1).daemon().factory());
+		Map<Path, Report> found = new ConcurrentHashMap<>();
+		Map<Path, Model> parsed = new ConcurrentHashMap<>();
+		CompletableFuture<?>[] parsing = files.stream()
+				.map(file -> CompletableFuture.runAsync(() -> parse(file, parsed, found), executor))
+				.toArray(CompletableFuture[]::new);
+		this.outcome = CompletableFuture.allOf(parsing).thenApplyAsync(v -> {
+			List<String> unmatched = new ArrayList<>();
+			validate(parsed, found, unmatched);
+			return new Outcome(found, unmatched);
+		}, executor);
+	}
+
+	void assertValid(Path file) {
+		Report report = reports().get(file);
+		if (report != null) {
+			fail(report.message(), report.cause());
+		}
+	}
+
+	/**
+	 * Fails if the validation report has results whose focus node is not a
+	 * subject in any of the files.
+	 */
+	void assertAllResultsMatched() {
+		List<String> unmatched = outcome.join().unmatched();
+		if (!unmatched.isEmpty()) {
+			fail("SHACL results not found in any example file:\n" + String.join("\n", unmatched));
+		}
+	}
+
+	/**
+	 * @return per file that is not valid, why not, once all files are validated
+	 */
+	Map<Path, Report> reports() {
+		return outcome.join().reports();
+	}
+
+	private static void parse(Path file, Map<Path, Model> parsed, Map<Path, Report> found) {
+		try (InputStream in = Files.newInputStream(file)) {
+			RDFFormat format = Rio.getParserFormatForFileName(file.getFileName().toString())
+					.orElse(RDFFormat.TURTLE);
+			Model model = Rio.parse(in, file.toUri().toString(), format);
+			if (model.isEmpty()) {
+				found.put(file, new Report(file.toUri() + " has no statements", null));
+			} else {
+				parsed.put(file, model);
+			}
+		} catch (RDFParseException | IOException e) {
+			found.put(file, new Report(file.toUri() + " failed with a non SHACL error", e));
+		}
+	}
+
+	private static void validate(Map<Path, Model> parsed, Map<Path, Report> found, List<String> unmatched) {
+		MemoryStore memoryStore = new MemoryStore();
+		ShaclSail shaclSail = new ShaclSail(memoryStore);
+		// All results are needed to give each file its own
+		shaclSail.setValidationResultsLimitPerConstraint(-1);
+		shaclSail.setValidationResultsLimitTotal(-1);
+		Repository repo = new SailRepository(shaclSail);
+		try (RepositoryConnection connection = repo.getConnection()) {
+			connection.begin();
+			connection.add(SpexShapes.shapes(), RDF4J.SHACL_SHAPE_GRAPH);
+			connection.commit();
+
+			ValueFactory vf = connection.getValueFactory();
+			connection.begin();
+			parsed.forEach((file, model) -> connection.add(model, vf.createIRI(file.toUri().toString())));
+			connection.commit();
+		} catch (RepositoryException e) {
+			if (e.getCause() instanceof ValidationException ve) {
+				split(ve.validationReportAsModel(), parsed, found, unmatched);
+			} else {
+				for (Path file : parsed.keySet()) {
+					found.put(file, new Report(file.toUri() + " failed with a non SHACL error", e));
+				}
+			}
+		} finally {
+			repo.shutDown();
+		}
+	}
+
+	/**
+	 * Gives each result of the report to the files that have its focus node as a
+	 * subject.
+	 */
+	private static void split(Model report, Map<Path, Model> parsed, Map<Path, Report> found,
+			List<String> unmatched) {
+		Map<Value, Set<Path>> filesOfSubject = new HashMap<>();
+		parsed.forEach((file, model) -> {
+			for (Resource subject : model.subjects()) {
+				filesOfSubject.computeIfAbsent(subject, s -> new HashSet<>()).add(file);
+			}
+		});
+		Map<Path, Model> perFile = new HashMap<>();
+		for (Resource result : Models.objectResources(report.filter(null, SHACL.RESULT, null))) {
+			Model description = new LinkedHashModel();
+			describe(report, result, description);
+			Set<Path> inFiles = Models.object(report.filter(result, SHACL.FOCUS_NODE, null))
+					.map(focus -> filesOfSubject.getOrDefault(focus, Set.of())).orElse(Set.of());
+			if (inFiles.isEmpty()) {
+				unmatched.add(SpexShapes.asTurtle(description));
+			}
+			for (Path file : inFiles) {
+				perFile.computeIfAbsent(file, f -> new LinkedHashModel()).addAll(description);
+			}
+		}
+		perFile.forEach((file, results) -> found.put(file,
+				new Report(file.toUri() + " Failed SHACL validation\n" + SpexShapes.asTurtle(results), null)));
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Adds the statements about the node, and about the blank nodes it points to.
+	 */
+	private static void describe(Model report, Resource node, Model description) {
+		for (Statement st : report.filter(node, null, null)) {
+			if (description.add(st) && st.getObject() instanceof BNode object) {
+				describe(report, object, description);
+			}
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Runs the queries of the examples on virtual threads, at most a given number
+ * at once in total and a smaller number at once per endpoint. So different
+ * endpoints are queried in parallel, without sending any one of them more than
+ * a few queries at a time.
+ *
+ * Runs are started when submitted, or with {@link #submitOnFirstTest} when the
+ * first of a group of tests waits for its outcome. Close to stop the runs that
+ * did not finish.
+ */
+final class ConcurrentQueryRunner implements AutoCloseable {
+	/**
+	 * Runs that are submitted together, the first time one of them is waited for.
+	 */
+	private final class Together {
+		private final String endpoint;
+		private final List<Executable> runs;
+		private List<Executable> submitted;
+
+		private Together(String endpoint, List<Executable> runs) {
+			this.endpoint = endpoint;
+			this.runs = runs;
+		}
+
+		private synchronized Executable submitted(int run) {
+			if (submitted == null) {
+				submitted = runs.stream().map(r -> submit(endpoint, r)).toList();
+			}
+			return submitted.get(run);
+		}
+	}
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Semaphore total;
+	private final int perEndpoint;
+	private final Map<String, Semaphore> endpoints = new ConcurrentHashMap<>();
+
+	/**
+	 * @param total       the number of queries that may run at the same time
+	 * @param perEndpoint the number of queries that may run at the same time on
+	 *                    one endpoint
+	 */
+	ConcurrentQueryRunner(int total, int perEndpoint) {
+		if (total < 1 || perEndpoint < 1) {
+			throw new IllegalArgumentException("At least one query must be allowed to run");
+		}
+		this.total = new Semaphore(total, true);
+		this.perEndpoint = perEndpoint;
+	}
+
+	/**
+	 * @param endpoint that the run queries
+	 * @param run      the queries of one example on that endpoint
+	 * @return what to give a test, that waits for the run and fails like it did
+	 */
+	Executable submit(String endpoint, Executable run) {
+		CompletableFuture<Void> outcome = new CompletableFuture<>();
+		Semaphore forEndpoint = endpoints.computeIfAbsent(endpoint, e -> new Semaphore(perEndpoint, true));
+		executor.execute(() -> {
+			try {
+				// The endpoint first, so runs waiting for a busy endpoint do not hold
+				// permits other endpoints could use
+				forEndpoint.acquire();
+				try {
+					total.acquire();
+					try {
+						run.execute();
+						outcome.complete(null);
+					} finally {
+						total.release();
+					}
+				} finally {
+					forEndpoint.release();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				outcome.completeExceptionally(e);
+			} catch (Throwable e) {
+				outcome.completeExceptionally(e);
+			}
+		});
+		return () -> {
+			try {
+				outcome.get();
+			} catch (ExecutionException e) {
+				throw e.getCause();
+			}
+		};
+	}
+
+	/**
+	 * Lets JUnit's selection of tests limit what is run: nothing is submitted if
+	 * none of the tests runs.
+	 *
+	 * @param endpoint that the runs query
+	 * @param runs     the queries of each example on that endpoint
+	 * @return for each run what to give its test. The first test that runs
+	 *         submits all runs, and then each test waits for its own.
+	 */
+	List<Executable> submitOnFirstTest(String endpoint, List<Executable> runs) {
+		Together together = new Together(endpoint, List.copyOf(runs));
+		return IntStream.range(0, runs.size()).<Executable>mapToObj(i -> () -> together.submitted(i).execute())
+				.toList();
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
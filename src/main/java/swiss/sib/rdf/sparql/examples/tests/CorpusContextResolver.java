@@ -0,0 +1,41 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import swiss.sib.rdf.sparql.examples.CorpusContext;
+
+/**
+ * Gives test methods the {@link CorpusContext} registered under the id in the
+ * {@value CorpusContext#CONFIGURATION_PARAMETER} configuration parameter, and
+ * the {@link FactoryResources} of the test method.
+ */
+public class CorpusContextResolver implements ParameterResolver {
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+			.create(CorpusContextResolver.class);
+
+	@Override
+	public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext)
+			throws ParameterResolutionException {
+		Class<?> type = parameterContext.getParameter().getType();
+		return type == CorpusContext.class || type == FactoryResources.class;
+	}
+
+	@Override
+	public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext)
+			throws ParameterResolutionException {
+		if (parameterContext.getParameter().getType() == FactoryResources.class) {
+			return new FactoryResources(extensionContext.getStore(NAMESPACE));
+		}
+		var id = extensionContext.getConfigurationParameter(CorpusContext.CONFIGURATION_PARAMETER);
+		if (id.isPresent()) {
+			return CorpusContext.registered(id.get()).orElseThrow(
+					() -> new ParameterResolutionException("No example directory registered as " + id.get()));
+		}
+		// Keep one context per test run, so all test factories share the parsed examples
+		return extensionContext.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(CorpusContext.class,
+				k -> CorpusContext.fromSystemProperty(), CorpusContext.class);
+	}
+}
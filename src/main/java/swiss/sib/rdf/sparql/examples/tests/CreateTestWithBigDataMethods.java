@@ -1,55 +1,24 @@
 package swiss.sib.rdf.sparql.examples.tests;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Iterator;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
-import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
-import org.eclipse.rdf4j.model.impl.LinkedHashModel;
-import org.eclipse.rdf4j.model.vocabulary.SHACL;
-import org.eclipse.rdf4j.rio.RDFFormat;
-import org.eclipse.rdf4j.rio.RDFHandlerException;
-import org.eclipse.rdf4j.rio.RDFParseException;
-import org.eclipse.rdf4j.rio.RDFParser;
-import org.eclipse.rdf4j.rio.Rio;
-import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 import org.openrdf.query.MalformedQueryException;
 
 import com.bigdata.rdf.sail.sparql.Bigdata2ASTSPARQLParser;
 
-import swiss.sib.rdf.sparql.examples.vocabularies.SIB;
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
 
 public class CreateTestWithBigDataMethods {
 
-	static void testQueryValid(Path p) {
-		assertTrue(Files.exists(p));
-		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
-		Model model = new LinkedHashModel();
-		rdfParser.setRDFHandler(new StatementCollector(model));
-		try (InputStream newInputStream = Files.newInputStream(p)) {
-			rdfParser.parse(newInputStream);
-		} catch (RDFParseException | RDFHandlerException | IOException e) {
-			fail(e);
-		}
-		assertFalse(model.isEmpty());
-
-		
-		Stream<IRI> of = Stream.of(SHACL.ASK, SHACL.SELECT, SHACL.CONSTRUCT, SIB.DESCRIBE);
-		Iterator<Statement> iterator = of.map(t -> model.getStatements(null, t, null).spliterator()).flatMap(sp -> StreamSupport.stream(sp, false)).iterator();
-		
-		testAllQueryStringsInModel(new Bigdata2ASTSPARQLParser(), iterator);
+	static void testQueryValid(Example example) {
+		ExampleAssertions.assertParsed(example);
+		testAllQueryStringsInModel(new Bigdata2ASTSPARQLParser(), example.queries().iterator());
 	}
 
 
@@ -60,6 +29,20 @@ public class CreateTestWithBigDataMethods {
 		}
 	}
 
+	/**
+	 * @param parser not thread safe, use one per thread
+	 * @param query  a SPARQL query
+	 * @return why Blazegraph could not parse the query, null if it could
+	 */
+	static String parseError(Bigdata2ASTSPARQLParser parser, String query) {
+		try {
+			parser.parseQuery(query, "https://example.org/");
+			return null;
+		} catch (MalformedQueryException qe) {
+			return String.valueOf(qe.getMessage());
+		}
+	}
+
 	private static void testQueryStringInValue(Bigdata2ASTSPARQLParser parser, Statement next) {
 		Value obj = next.getObject();
 		assertNotNull(obj);
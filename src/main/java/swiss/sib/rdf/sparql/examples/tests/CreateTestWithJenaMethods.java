@@ -1,45 +1,38 @@
 package swiss.sib.rdf.sparql.examples.tests;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
-
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryException;
 import org.apache.jena.query.QueryFactory;
-import org.apache.jena.rdf.model.Literal;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.NodeIterator;
-import org.apache.jena.rdf.model.RDFNode;
-import org.apache.jena.riot.RDFDataMgr;
-import org.eclipse.rdf4j.model.vocabulary.SHACL;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
 
 public class CreateTestWithJenaMethods {
 
-	static void testQueryValid(Path p) {
-		assertTrue(Files.exists(p));
-		Model model = RDFDataMgr.loadModel(p.toUri().toString());
-		assertFalse(model.isEmpty());
-		Stream.of("ask", "select", "concat", "describe")
-				.map(s -> model.listObjectsOfProperty(model.createProperty(SHACL.NAMESPACE, s)))
-				.map(NodeIterator::toList)
-				.filter(Predicate.not(List::isEmpty))
-				.flatMap(List::stream).forEach(n -> testQueryStringInRDFNode(n));
+	static void testQueryValid(Example example) {
+		ExampleAssertions.assertParsed(example);
+		example.queryStrings().forEach(CreateTestWithJenaMethods::testQueryString);
+	}
 
+	/**
+	 * @param query a SPARQL query
+	 * @return why Jena could not parse the query, null if it could
+	 */
+	static String parseError(String query) {
+		try {
+			QueryFactory.create(QueryFactory.create(query));
+			return null;
+		} catch (QueryException qe) {
+			return String.valueOf(qe.getMessage());
+		}
 	}
 
-	private static void testQueryStringInRDFNode(RDFNode n) {
-		assertNotNull(n);
-		Literal ql = n.asLiteral();
+	private static void testQueryString(String ql) {
+		assertNotNull(ql);
 		try {
-			Query qry = QueryFactory.create(ql.getString());
+			Query qry = QueryFactory.create(ql);
 			Query q = QueryFactory.create(qry);
 			assertNotNull(q);
 		} catch (QueryException qe) {
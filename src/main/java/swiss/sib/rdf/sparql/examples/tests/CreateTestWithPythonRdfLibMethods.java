@@ -1,80 +1,149 @@
 package swiss.sib.rdf.sparql.examples.tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Iterator;
-import java.util.function.Function;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
-import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
-import org.eclipse.rdf4j.model.impl.LinkedHashModel;
-import org.eclipse.rdf4j.model.vocabulary.SHACL;
-import org.eclipse.rdf4j.rio.RDFFormat;
-import org.eclipse.rdf4j.rio.RDFHandlerException;
-import org.eclipse.rdf4j.rio.RDFParseException;
-import org.eclipse.rdf4j.rio.RDFParser;
-import org.eclipse.rdf4j.rio.Rio;
-import org.eclipse.rdf4j.rio.helpers.StatementCollector;
-import org.graalvm.polyglot.Context.Builder;
-import org.graalvm.python.embedding.GraalPyResources;
-import org.graalvm.python.embedding.VirtualFileSystem;
-
-import swiss.sib.rdf.sparql.examples.vocabularies.SIB;
-
-public record CreateTestWithPythonRdfLibMethods(Function<String, String> t) {
-
-	@SuppressWarnings("unchecked")
+import org.graalvm.polyglot.proxy.ProxyArray;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+/**
+ * Validates queries with RDFLib, running in GraalPy. Calls from different
+ * threads each use their own python context, from a pool of at most one per
+ * core. Close to release the contexts.
+ *
+ * Queries are sent to python in batches, so the cost of crossing into python
+ * is paid once per batch instead of once per query.
+ */
+public class CreateTestWithPythonRdfLibMethods implements AutoCloseable {
+	// Large enough that crossing into python is cheap, small enough to use all
+	// contexts on small corpora
+	private static final int BATCH_SIZE = 256;
+	private static final String OK = "OK";
+	private final PythonContextPool pool;
+
 	public CreateTestWithPythonRdfLibMethods() {
-		this(CONTEXT_BUILDER.build().eval(PYTHON, TEST_SCRIPT).as(Function.class));
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param contexts the maximum number of python contexts to use in parallel
+	 */
+	public CreateTestWithPythonRdfLibMethods(int contexts) {
+		this.pool = new PythonContextPool(TEST_SCRIPT, contexts);
 	}
 
 	void testQueryValid(Path p) {
 		assertTrue(Files.exists(p));
-		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
-		Model model = new LinkedHashModel();
-		rdfParser.setRDFHandler(new StatementCollector(model));
-		try (InputStream newInputStream = Files.newInputStream(p)) {
-			rdfParser.parse(newInputStream);
-		} catch (RDFParseException | RDFHandlerException | IOException e) {
-			fail(e);
+		testQueryValid(Example.parse(p));
+	}
+
+	void testQueryValid(Example example) {
+		ExampleAssertions.assertParsed(example);
+		List<Statement> queries = example.queries().stream().filter(this::checked).toList();
+		List<String> results = resultsOf(queries.stream().map(s -> s.getObject().stringValue()).toList());
+		for (int i = 0; i < queries.size(); i++) {
+			assertResult(queries.get(i).getObject().stringValue(), results.get(i));
 		}
-		assertFalse(model.isEmpty());
-	
-			Stream.of(SHACL.ASK, SHACL.SELECT, SHACL.CONSTRUCT, SIB.DESCRIBE)
-					.map(s -> model.getStatements(null, s, null)).map(Iterable::iterator)
-					.forEach(this::testAllQueryStringsInModel);
 	}
 
-	private void testAllQueryStringsInModel(Iterator<Statement> i) {
-		while (i.hasNext()) {
-			Statement next = i.next();
-			testQueryStringInValue(next);
+	/**
+	 * Starts validating the given queries in batches on the python pool when it is
+	 * made, and then reports for each example whether its queries were valid. The
+	 * tests only wait for the batches, and if validating failed each test reports
+	 * that failure instead of trying again.
+	 */
+	final class Batched {
+		private final CompletableFuture<Map<String, String>> results;
+
+		private Batched(Stream<String> toValidate) {
+			List<String> queries = toValidate.filter(q -> !SERVICE_PATTERN.test(q)).distinct().toList();
+			this.results = inBatches(queries).thenApply(found -> {
+				Map<String, String> all = new HashMap<>();
+				for (int i = 0; i < queries.size(); i++) {
+					all.put(queries.get(i), found.get(i));
+				}
+				return all;
+			});
+		}
+
+		void testQueryValid(Example example) {
+			ExampleAssertions.assertParsed(example);
+			Map<String, String> all = results();
+			example.queries().stream().filter(CreateTestWithPythonRdfLibMethods.this::checked).forEach(st -> {
+				String query = st.getObject().stringValue();
+				assertResult(query, all.get(query));
+			});
+		}
+
+		/**
+		 * Like {@link CreateTestWithPythonRdfLibMethods#parseErrors(List)}, taking
+		 * the queries that were in the batches from them.
+		 *
+		 * @param queries SPARQL queries
+		 * @return for each query why RDFLib could not parse it, null if it could
+		 */
+		List<String> parseErrors(List<String> queries) {
+			Map<String, String> all = results();
+			List<String> others = queries.stream().filter(q -> !all.containsKey(q)).toList();
+			List<String> othersErrors = CreateTestWithPythonRdfLibMethods.this.parseErrors(others);
+			Map<String, String> errors = new HashMap<>();
+			for (int i = 0; i < others.size(); i++) {
+				errors.put(others.get(i), othersErrors.get(i));
+			}
+			return queries.stream().map(q -> {
+				String result = all.get(q);
+				return result == null ? errors.get(q) : (OK.equals(result) ? null : result);
+			}).toList();
+		}
+
+		private Map<String, String> results() {
+			try {
+				return results.join();
+			} catch (CompletionException e) {
+				return fail("RDFLib could not validate the queries", e.getCause());
+			}
 		}
 	}
 
+	/**
+	 * @param queries the queries that will be tested, e.g. those of all examples
+	 *                or only those not in a validation cache
+	 * @return a tester that has started to validate those queries
+	 */
+	Batched batched(Stream<String> queries) {
+		return new Batched(queries);
+	}
 
-	private static final VirtualFileSystem VFS = VirtualFileSystem.newBuilder()
-			.resourceDirectory("GRAALPY-VFS/swiss.sib.rdf/sparql-examples-utils").build();
+	private boolean checked(Statement next) {
+		Value obj = next.getObject();
+		assertNotNull(obj);
+		assertTrue(obj.isLiteral());
+		return !SERVICE_PATTERN.test(obj.stringValue());
+	}
+
+	private static void assertResult(String query, String result) {
+		assertEquals(OK, result, "Query not valid according to RDFlib: " + query + " Result: " + result);
+	}
 
-	static final Builder CONTEXT_BUILDER = GraalPyResources.contextBuilder(VFS)
-			.option("engine.WarnInterpreterOnly", "false")
-			.allowAllAccess(true);
 	private static final Predicate<String> SERVICE_PATTERN = Pattern.compile("service", Pattern.CASE_INSENSITIVE)
 			.asPredicate();
-
-	private static final String PYTHON = "python";
 	private static final String TEST_SCRIPT = """
              from rdflib.plugins.sparql.parser import parseQuery
              from rdflib.exceptions import ParserError as ParseError
@@ -87,19 +156,76 @@ public record CreateTestWithPythonRdfLibMethods(Function<String, String> t) {
                      return err.msg
                  except Exception as e:
                      return str(e)
-             test
+             def test_batch(queries):
+                 return [test(query) for query in queries]
+             test_batch
              """;
 
-	//Not sure the context is thread safe, so synchronize the call to the python function
-	synchronized void testQueryStringInValue(Statement next) {
-		Value obj = next.getObject();
-		assertNotNull(obj);
-		assertTrue(obj.isLiteral());
-		String query = obj.stringValue();
-		if (SERVICE_PATTERN.test(query)) {
-			return;
+	/**
+	 * Queries using SERVICE are not checked, as RDFLib can not parse all of them.
+	 *
+	 * @param queries SPARQL queries
+	 * @return for each query why RDFLib could not parse it, null if it could
+	 */
+	List<String> parseErrors(List<String> queries) {
+		List<String> checked = queries.stream().filter(q -> !SERVICE_PATTERN.test(q)).toList();
+		List<String> results = resultsOf(checked);
+		Map<String, String> errors = new HashMap<>();
+		for (int i = 0; i < checked.size(); i++) {
+			errors.put(checked.get(i), results.get(i));
+		}
+		return queries.stream().map(q -> {
+			String result = errors.get(q);
+			return result == null || OK.equals(result) ? null : result;
+		}).toList();
+	}
+
+	/**
+	 * Sends the queries in batches, in parallel as far as the pool allows.
+	 *
+	 * @return for each query "OK" or the reason RDFLib could not parse it
+	 */
+	private List<String> resultsOf(List<String> queries) {
+		if (queries.isEmpty()) {
+			return List.of();
+		} else if (queries.size() <= BATCH_SIZE) {
+			return pool.execute(CreateTestWithPythonRdfLibMethods::strings,
+					ProxyArray.fromList(new ArrayList<>(queries)));
 		}
-		String apply = t.apply(query);
-		assertEquals("OK", apply, "Query not valid according to RDFlib: " + query +" Result: " + apply);
+		try {
+			return inBatches(queries).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * @return for each query "OK" or the reason RDFLib could not parse it, once
+	 *         all batches are done on the threads of the pool
+	 */
+	private CompletableFuture<List<String>> inBatches(List<String> queries) {
+		List<CompletableFuture<List<String>>> batches = new ArrayList<>();
+		for (int from = 0; from < queries.size(); from += BATCH_SIZE) {
+			List<Object> batch = new ArrayList<>(queries.subList(from, Math.min(queries.size(), from + BATCH_SIZE)));
+			batches.add(pool.submit(CreateTestWithPythonRdfLibMethods::strings, ProxyArray.fromList(batch)));
+		}
+		return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+				.thenApply(v -> batches.stream().flatMap(b -> b.join().stream()).toList());
+	}
+
+	private static List<String> strings(org.graalvm.polyglot.Value array) {
+		List<String> results = new ArrayList<>((int) array.getArraySize());
+		for (long i = 0; i < array.getArraySize(); i++) {
+			results.add(array.getArrayElement(i).asString());
+		}
+		return results;
+	}
+
+	@Override
+	public void close() {
+		pool.close();
 	}
 }
@@ -1,19 +1,16 @@
 package swiss.sib.rdf.sparql.examples.tests;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -41,18 +38,12 @@ import org.eclipse.rdf4j.query.algebra.Slice;
 import org.eclipse.rdf4j.query.algebra.StatementPattern;
 import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
-import org.eclipse.rdf4j.query.parser.QueryParser;
-import org.eclipse.rdf4j.query.parser.sparql.SPARQLParserFactory;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.eclipse.rdf4j.repository.sparql.SPARQLRepository;
-import org.eclipse.rdf4j.rio.RDFFormat;
-import org.eclipse.rdf4j.rio.RDFHandlerException;
-import org.eclipse.rdf4j.rio.RDFParseException;
-import org.eclipse.rdf4j.rio.RDFParser;
-import org.eclipse.rdf4j.rio.Rio;
-import org.eclipse.rdf4j.rio.helpers.StatementCollector;
 import org.junit.jupiter.api.function.Executable;
 
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+import swiss.sib.rdf.sparql.examples.ParsedQueries;
 import swiss.sib.rdf.sparql.examples.statistics.ServiceDescription;
 import swiss.sib.rdf.sparql.examples.vocabularies.SIB;
 import swiss.sib.rdf.sparql.examples.vocabularies.SchemaDotOrg;
@@ -102,55 +93,29 @@ public class CreateTestWithRDF4jMethods {
 		}
 	}
 
-	static void testQueryValid(Path p) {
-		assertTrue(Files.exists(p));
-		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
-		Model model = new LinkedHashModel();
-		rdfParser.setRDFHandler(new StatementCollector(model));
-		try (InputStream newInputStream = Files.newInputStream(p)) {
-			rdfParser.parse(newInputStream);
-		} catch (RDFParseException | RDFHandlerException | IOException e) {
-			fail(e);
-		}
-		assertFalse(model.isEmpty());
-		QueryParser parser = new SPARQLParserFactory().getParser();
-		Stream.of(SHACL.ASK, SHACL.SELECT, SHACL.CONSTRUCT, SIB.DESCRIBE).map(s -> model.getStatements(null, s, null))
-				.map(Iterable::iterator).forEach(i -> testAllQueryStringsInModel(parser, i));
-
+	static void testQueryValid(Example example) {
+		ExampleAssertions.assertParsed(example);
+		testAllQueryStringsInModel(example.queries().iterator());
 	}
 
-	static Stream<String> extractServiceEndpoints(Path p) {
-		assertTrue(Files.exists(p));
-		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
-		Model model = new LinkedHashModel();
-		rdfParser.setRDFHandler(new StatementCollector(model));
-		try (InputStream newInputStream = Files.newInputStream(p)) {
-			rdfParser.parse(newInputStream);
-		} catch (RDFParseException | RDFHandlerException | IOException e) {
-			fail(e);
-		}
-		assertFalse(model.isEmpty());
-		QueryParser parser = new SPARQLParserFactory().getParser();
-
-		return Stream.of(SHACL.ASK, SHACL.SELECT, SHACL.CONSTRUCT, SIB.DESCRIBE)
-				.map(s -> model.getStatements(null, s, null)).map(Iterable::iterator).map(i -> {
-					return collectServiceIrisInFromOneExample(parser, i);
-				}).flatMap(Set::stream);
+	static Stream<String> extractServiceEndpoints(Example example) {
+		ExampleAssertions.assertParsed(example);
+		return collectServiceIrisInFromOneExample(example.queries().iterator()).stream();
 	}
 
-	private static Set<String> collectServiceIrisInFromOneExample(QueryParser parser, Iterator<Statement> i) {
+	private static Set<String> collectServiceIrisInFromOneExample(Iterator<Statement> i) {
 		Set<String> serviceIris = new HashSet<>();
 		while (i.hasNext()) {
 			Value obj = i.next().getObject();
 
-			extractedServiceIRIsFromOneQuery(parser, serviceIris, obj.stringValue());
+			extractedServiceIRIsFromOneQuery(serviceIris, obj.stringValue());
 		}
 		return serviceIris;
 	}
 
-	public static void extractedServiceIRIsFromOneQuery(QueryParser parser, Set<String> serviceIris, String obj) {
+	public static void extractedServiceIRIsFromOneQuery(Set<String> serviceIris, String obj) {
 		try {
-			ParsedQuery query = parser.parseQuery(obj, "https://example.org/");
+			ParsedQuery query = ParsedQueries.parse(obj, "https://example.org/");
 			query.getTupleExpr().visit(new AbstractQueryModelVisitor<RuntimeException>() {
 
 				@Override
@@ -168,34 +133,63 @@ public class CreateTestWithRDF4jMethods {
 		}
 	}
 
-	private static void testAllQueryStringsInModel(QueryParser parser, Iterator<Statement> i) {
+	private static void testAllQueryStringsInModel(Iterator<Statement> i) {
 		while (i.hasNext()) {
 			Statement next = i.next();
-			testQueryStringInValue(parser, next);
+			testQueryStringInValue(next);
+		}
+	}
+
+	/**
+	 * @param query a SPARQL query
+	 * @return why RDF4j could not parse the query, null if it could
+	 */
+	static String parseError(String query) {
+		try {
+			ParsedQueries.parse(query, "https://example.org/");
+			return null;
+		} catch (MalformedQueryException qe) {
+			return String.valueOf(qe.getMessage());
 		}
 	}
 
-	private static void testQueryStringInValue(QueryParser parser, Statement next) {
+	private static void testQueryStringInValue(Statement next) {
 		Value obj = next.getObject();
 		assertNotNull(obj);
 		assertTrue(obj.isLiteral());
 
 		try {
-			parser.parseQuery(obj.stringValue(), "https://example.org/");
+			ParsedQueries.parse(obj.stringValue(), "https://example.org/");
 		} catch (MalformedQueryException qe) {
 			fail(qe.getMessage() + "\n" + obj.stringValue(), qe);
 		}
 	}
 
 	/**
-	 * Generate a test case to make sure the query runs.
+	 * Generate a test case to make sure the queries run on one endpoint.
 	 * 
-	 * @param p of file containing the query
+	 * @param example      the parsed file containing the query
+	 * @param endpoint     only the queries that target this endpoint are run
+	 * @param repositories shared by all tests, one per endpoint
 	 */
-	public static void testQueryRuns(Path p) {
-		Model model = readAllQueries(p);
-		QueryParser parser = new SPARQLParserFactory().getParser();
-		Arrays.stream(QueryTypes.values()).forEach(s -> executeAllQueryStringsInModel(parser, model, s));
+	static void testQueryRuns(Example example, String endpoint, EndpointRepositories repositories) {
+		Model model = ExampleAssertions.assertParsed(example);
+		Arrays.stream(QueryTypes.values())
+				.forEach(s -> executeAllQueryStringsInModel(model, s, endpoint, repositories));
+	}
+
+	/**
+	 * @param example a parsed file
+	 * @return the schema:target endpoints of its queries
+	 */
+	static Set<String> targets(Example example) {
+		Set<String> targets = new TreeSet<>();
+		for (Statement query : example.queries()) {
+			for (Statement target : example.model().getStatements(query.getSubject(), SchemaDotOrg.TARGET, null)) {
+				targets.add(target.getObject().stringValue());
+			}
+		}
+		return targets;
 	}
 
 	/**
@@ -205,12 +199,14 @@ public class CreateTestWithRDF4jMethods {
 	 */
 	private static final Map<String, Model> VOID_DATA_CACHE = new ConcurrentHashMap<>();
 
-	public static Executable testQueryMatchesVoid(Path p) {
-		Model model = readAllQueries(p);
-		QueryParser parser = new SPARQLParserFactory().getParser();
+	public static Executable testQueryMatchesVoid(Example example) {
+		if (example.failure() != null) {
+			return () -> ExampleAssertions.assertParsed(example);
+		}
+		Model model = example.model();
 		if (queryTargetsEndPointsWithVoidData(model))
 			return () -> Arrays.stream(QueryTypes.values())
-					.forEach(s -> validateWithVoidAllQueryStringsInModel(parser, model, s, VOID_DATA_CACHE));
+					.forEach(s -> validateWithVoidAllQueryStringsInModel(model, s, VOID_DATA_CACHE));
 		else
 			return null;
 	}
@@ -231,20 +227,7 @@ public class CreateTestWithRDF4jMethods {
 		return (!voIDData.isEmpty()  && (!voIDData.filter(null, VOID.PROPERTY, null).isEmpty() || !voIDData.filter(null, VOID.CLASS, null).isEmpty()));
 	}
 
-	private static Model readAllQueries(Path p) {
-		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
-		Model model = new LinkedHashModel();
-		rdfParser.setRDFHandler(new StatementCollector(model));
-		try (InputStream newInputStream = Files.newInputStream(p)) {
-			rdfParser.parse(newInputStream);
-		} catch (RDFParseException | RDFHandlerException | IOException e) {
-			fail(e);
-		}
-		assertFalse(model.isEmpty());
-		return model;
-	}
-
-	private static void validateWithVoidAllQueryStringsInModel(QueryParser parser, Model m, QueryTypes qt,
+	private static void validateWithVoidAllQueryStringsInModel(Model m, QueryTypes qt,
 			Map<String, Model> voidDataCache) {
 		Iterator<Statement> i = m.getStatements(null, qt.iri, null).iterator();
 
@@ -253,46 +236,45 @@ public class CreateTestWithRDF4jMethods {
 			Iterator<Statement> targets = m.getStatements(next.getSubject(), SchemaDotOrg.TARGET, null).iterator();
 			while (targets.hasNext()) {
 				Statement targetStatement = targets.next();
-				voidValidateQueryStringInValue(parser, next.getObject(), targetStatement.getObject(), qt,
+				voidValidateQueryStringInValue(next.getObject(), targetStatement.getObject(), qt,
 						voidDataCache);
 			}
 		}
 	}
 
-	private static void executeAllQueryStringsInModel(QueryParser parser, Model m, QueryTypes qt) {
+	private static void executeAllQueryStringsInModel(Model m, QueryTypes qt, String endpoint,
+			EndpointRepositories repositories) {
+		IRI target = SimpleValueFactory.getInstance().createIRI(endpoint);
 		Iterator<Statement> i = m.getStatements(null, qt.iri, null).iterator();
 		while (i.hasNext()) {
 			Statement next = i.next();
-			Iterator<Statement> targets = m.getStatements(next.getSubject(), SchemaDotOrg.TARGET, null).iterator();
-			while (targets.hasNext()) {
-				Statement targetStatement = targets.next();
-				executeQueryStringInValue(parser, next.getObject(), targetStatement.getObject(), qt);
+			if (m.contains(next.getSubject(), SchemaDotOrg.TARGET, target)) {
+				executeQueryStringInValue(next.getObject(), repositories.repository(endpoint), qt);
 			}
 		}
 	}
 
-	private static void voidValidateQueryStringInValue(QueryParser parser, Value obj, Value target, QueryTypes qt,
+	private static void voidValidateQueryStringInValue(Value obj, Value target, QueryTypes qt,
 			Map<String, Model> voidDataCache) {
 		String queryStr = obj.stringValue();
 		String endpoint = target.stringValue();
 		if (endPointHasVoidData(endpoint)) {
 			Model voidData = retrieveVoIDData(voidDataCache, endpoint);		
-			testVoidProperties(parser, queryStr, endpoint, voidData);
+			testVoidProperties(queryStr, endpoint, voidData);
 		}
 	}
 
 	private static Model retrieveVoIDData(Map<String, Model> voidDataCache, String endpoint) {
-		Model voidData = voidDataCache.get(endpoint);
-		if (voidData == null) {
-			voidData = ServiceDescription.retrieveVoIDDataFromServiceDescription(endpoint);
-			voidDataCache.put(endpoint, voidData);
-		}
-		return voidData;
+		// Fetched once even when tests run in parallel. Copied, as a TreeModel
+		// builds its indexes while being read and so can not be shared between
+		// threads
+		return voidDataCache.computeIfAbsent(endpoint,
+				e -> new LinkedHashModel(ServiceDescription.retrieveVoIDDataFromServiceDescription(e)));
 	}
 
-	private static void testVoidProperties(QueryParser parser, String queryStr, String endpoint, Model voidData) {
+	private static void testVoidProperties(String queryStr, String endpoint, Model voidData) {
 		try {
-			ParsedQuery pq = parser.parseQuery(queryStr, endpoint);
+			ParsedQuery pq = ParsedQueries.parse(queryStr, endpoint);
 			var vis = new FailIfPredicateOrClassNotInVoidVisitor(endpoint, voidData);
 			pq.getTupleExpr().visit(vis);
 		} catch (MalformedQueryException qe) {
@@ -302,20 +284,16 @@ public class CreateTestWithRDF4jMethods {
 		}
 	}
 
-	private static void executeQueryStringInValue(QueryParser parser, Value obj, Value target, QueryTypes qt) {
+	private static void executeQueryStringInValue(Value obj, SPARQLRepository r, QueryTypes qt) {
 		assertNotNull(obj);
 		assertTrue(obj.isLiteral());
 		String queryStr = obj.stringValue();
 
-		SPARQLRepository r = new SPARQLRepository(target.stringValue());
-		try {
-			r.init();
-			try (RepositoryConnection connection = r.getConnection()) {
-				queryStr = addLimitToQuery(parser, obj, qt, queryStr);
-				Query query = qt.pq.apply(connection, queryStr);
-				query.setMaxExecutionTime(45 * 60);
-				tryEvaluating(query);
-			}
+		try (RepositoryConnection connection = r.getConnection()) {
+			queryStr = addLimitToQuery(obj, qt, queryStr);
+			Query query = qt.pq.apply(connection, queryStr);
+			query.setMaxExecutionTime(45 * 60);
+			tryEvaluating(query);
 		} catch (MalformedQueryException qe) {
 			fail(qe.getMessage() + "\n" + queryStr, qe);
 		} catch (QueryEvaluationException qe) {
@@ -345,11 +323,11 @@ public class CreateTestWithRDF4jMethods {
 		}
 	}
 
-	private static String addLimitToQuery(QueryParser parser, Value obj, QueryTypes qt, String queryStr) {
+	private static String addLimitToQuery(Value obj, QueryTypes qt, String queryStr) {
 		// If it is not an ask we better insert a limit into the query.
 		if (qt != QueryTypes.ASK) {
 			HasLimit visitor = new HasLimit();
-			ParsedQuery pq = parser.parseQuery(queryStr, "https://example.org/");
+			ParsedQuery pq = ParsedQueries.parse(queryStr, "https://example.org/");
 			pq.getTupleExpr().visit(visitor);
 			if (!visitor.hasLimit) {
 				// We can add the limit at the end.
@@ -371,17 +349,9 @@ public class CreateTestWithRDF4jMethods {
 
 	}
 
-	static void testQueryAnnotatedWithFederatesWith(Path p) {
-		assertTrue(Files.exists(p));
-		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
-		Model model = new LinkedHashModel();
-		rdfParser.setRDFHandler(new StatementCollector(model));
-		try (InputStream newInputStream = Files.newInputStream(p)) {
-			rdfParser.parse(newInputStream);
-		} catch (RDFParseException | RDFHandlerException | IOException e) {
-			fail(e);
-		}
-		assertFalse(model.isEmpty());
+	static void testQueryAnnotatedWithFederatesWith(Example example) {
+		Model model = ExampleAssertions.assertParsed(example);
+		Path p = example.path();
 		Set<String> serviceEndpoints = extractServiceEndpoints(model).collect(Collectors.toSet());
 
 		serviceEndpoints.forEach(endpoint -> {
@@ -399,11 +369,9 @@ public class CreateTestWithRDF4jMethods {
 	}
 
 	public static Stream<String> extractServiceEndpoints(Model model) {
-		QueryParser parser = new SPARQLParserFactory().getParser();
-
 		return Stream.of(SHACL.ASK, SHACL.SELECT, SHACL.CONSTRUCT, SIB.DESCRIBE)
 				.map(s -> model.getStatements(null, s, null)).map(Iterable::iterator).map(i -> {
-					return collectServiceIrisInFromOneExample(parser, i);
+					return collectServiceIrisInFromOneExample(i);
 				}).flatMap(Set::stream);
 	}
 }
@@ -0,0 +1,47 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.rdf4j.repository.sparql.SPARQLRepository;
+
+/**
+ * One SPARQL repository per endpoint, made on first use and kept for the whole
+ * test run, so that all queries to an endpoint share its HTTP client and
+ * connections. Close to shut them all down.
+ */
+final class EndpointRepositories implements AutoCloseable {
+	private final Map<String, SPARQLRepository> repositories = new ConcurrentHashMap<>();
+	private volatile boolean closed = false;
+
+	/**
+	 * @param endpoint the URL of the SPARQL endpoint
+	 * @return the initialized repository of the endpoint
+	 */
+	SPARQLRepository repository(String endpoint) {
+		if (closed) {
+			throw new IllegalStateException("Endpoint repositories are shut down");
+		}
+		return repositories.computeIfAbsent(endpoint, e -> {
+			SPARQLRepository repository = new SPARQLRepository(e);
+			repository.init();
+			return repository;
+		});
+	}
+
+	/**
+	 * @return the number of endpoints a repository was made for
+	 */
+	int size() {
+		return repositories.size();
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		for (SPARQLRepository repository : repositories.values()) {
+			repository.shutDown();
+		}
+		repositories.clear();
+	}
+}
@@ -0,0 +1,116 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.function.Executable;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+/**
+ * Which engine accepted which example, collected from the per engine tests
+ * while they run, so that no query is parsed again just for the matrix.
+ */
+public final class EngineMatrix {
+
+	/**
+	 * @param nanos   time spent in the test of the example
+	 * @param failure why the engine did not accept the example, null if it did
+	 */
+	public record Outcome(long nanos, String failure) {
+		public boolean passed() {
+			return failure == null;
+		}
+	}
+
+	/**
+	 * @param example  the example file
+	 * @param outcomes per engine that tested the example
+	 */
+	public record Row(Path example, Map<SparqlEngine, Outcome> outcomes) {
+		/**
+		 * @return the project directory and file name, as used for the test names
+		 */
+		public String name() {
+			return example.getParent().getFileName().toString() + '/' + example.getFileName().toString();
+		}
+	}
+
+	/**
+	 * @param engines the engines that tested at least one example
+	 * @param rows    one per example, ordered by path
+	 */
+	public record Matrix(Set<SparqlEngine> engines, List<Row> rows) {
+		public long passed(SparqlEngine engine) {
+			return outcomes(engine).filter(Outcome::passed).count();
+		}
+
+		public long failed(SparqlEngine engine) {
+			return outcomes(engine).filter(o -> !o.passed()).count();
+		}
+
+		public long nanos(SparqlEngine engine) {
+			return outcomes(engine).mapToLong(Outcome::nanos).sum();
+		}
+
+		private Stream<Outcome> outcomes(SparqlEngine engine) {
+			return rows.stream().map(r -> r.outcomes().get(engine)).filter(Objects::nonNull);
+		}
+	}
+
+	private final Map<Path, Map<SparqlEngine, Outcome>> outcomes = new ConcurrentSkipListMap<>();
+
+	/**
+	 * @param engine that the tests are for
+	 * @param tester makes the test of an example
+	 * @return a tester of which the tests also record their outcome here
+	 */
+	public Function<Example, Executable> recording(SparqlEngine engine, Function<Example, Executable> tester) {
+		return example -> {
+			Executable test = tester.apply(example);
+			if (test == null) {
+				return null;
+			}
+			return () -> {
+				long start = System.nanoTime();
+				try {
+					test.execute();
+					record(engine, example.path(), new Outcome(System.nanoTime() - start, null));
+				} catch (Throwable t) {
+					record(engine, example.path(),
+							new Outcome(System.nanoTime() - start, String.valueOf(t.getMessage())));
+					throw t;
+				}
+			};
+		};
+	}
+
+	void record(SparqlEngine engine, Path example, Outcome outcome) {
+		outcomes.computeIfAbsent(example, e -> new ConcurrentHashMap<>()).put(engine, outcome);
+	}
+
+	/**
+	 * @return the outcomes recorded so far
+	 */
+	public Matrix matrix() {
+		Set<SparqlEngine> engines = EnumSet.noneOf(SparqlEngine.class);
+		List<Row> rows = new ArrayList<>();
+		for (Map.Entry<Path, Map<SparqlEngine, Outcome>> en : outcomes.entrySet()) {
+			Map<SparqlEngine, Outcome> perEngine = new EnumMap<>(SparqlEngine.class);
+			perEngine.putAll(en.getValue());
+			engines.addAll(perEngine.keySet());
+			rows.add(new Row(en.getKey(), perEngine));
+		}
+		return new Matrix(engines, rows);
+	}
+}
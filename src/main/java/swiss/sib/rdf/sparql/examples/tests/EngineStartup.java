@@ -0,0 +1,65 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bigdata.rdf.sail.sparql.Bigdata2ASTSPARQLParser;
+
+import swiss.sib.rdf.sparql.examples.CorpusContext;
+
+/**
+ * Starts the engines on first use in a test run, and remembers how long that
+ * took. Starting means loading the classes of the engine and parsing a trivial
+ * query, for RDFLib also booting the first python context.
+ *
+ * Nothing is started until a test asks for it, so engines whose tests are
+ * excluded cost nothing. Each run has its own, kept by its
+ * {@link CorpusContext}, so runs in one JVM do not mix up their startup times.
+ * A java engine that an earlier run already loaded starts faster.
+ */
+public final class EngineStartup {
+	private static final String TRIVIAL_QUERY = "ASK {}";
+	private final Map<SparqlEngine, Long> startupNanos = new ConcurrentHashMap<>();
+
+	/**
+	 * Start one of the java engines, if it was not started yet.
+	 *
+	 * @param engine not RDFLIB, use {@link #start(CreateTestWithPythonRdfLibMethods)}
+	 */
+	void start(SparqlEngine engine) {
+		startupNanos.computeIfAbsent(engine, e -> time(() -> {
+			switch (e) {
+			case RDF4J -> CreateTestWithRDF4jMethods.parseError(TRIVIAL_QUERY);
+			case JENA -> CreateTestWithJenaMethods.parseError(TRIVIAL_QUERY);
+			case BLAZEGRAPH -> CreateTestWithBigDataMethods.parseError(new Bigdata2ASTSPARQLParser(), TRIVIAL_QUERY);
+			case RDFLIB -> throw new IllegalArgumentException("RDFLib is started with its context pool");
+			}
+		}));
+	}
+
+	/**
+	 * Start the first python context of the pool, if RDFLib was not started yet.
+	 */
+	void start(CreateTestWithPythonRdfLibMethods rdflib) {
+		startupNanos.computeIfAbsent(SparqlEngine.RDFLIB,
+				e -> time(() -> rdflib.parseErrors(List.of(TRIVIAL_QUERY))));
+	}
+
+	private static long time(Runnable start) {
+		long begin = System.nanoTime();
+		start.run();
+		return System.nanoTime() - begin;
+	}
+
+	/**
+	 * @return the engines that were started in this run, with how long each took
+	 *         in nanoseconds
+	 */
+	public Map<SparqlEngine, Long> startupNanos() {
+		Map<SparqlEngine, Long> started = new EnumMap<>(SparqlEngine.class);
+		started.putAll(startupNanos);
+		return started;
+	}
+}
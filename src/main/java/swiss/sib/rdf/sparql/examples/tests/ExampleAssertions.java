@@ -0,0 +1,32 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.eclipse.rdf4j.model.Model;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+/**
+ * Shared assertions on the parsed examples of the corpus.
+ */
+final class ExampleAssertions {
+	private ExampleAssertions() {
+
+	}
+
+	/**
+	 * Fail if the example could not be read or parsed, or is empty.
+	 * 
+	 * @param example the parsed example
+	 * @return the model of the example
+	 */
+	static Model assertParsed(Example example) {
+		if (example.failure() != null) {
+			fail(example.failure());
+		}
+		Model model = example.model();
+		assertFalse(model.isEmpty());
+		return model;
+	}
+}
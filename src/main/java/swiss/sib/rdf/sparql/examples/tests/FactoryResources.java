@@ -0,0 +1,27 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Closes what the dynamic tests of one test factory share, once all of those
+ * tests have finished. Closing the returned stream of tests is too early when
+ * tests run in parallel, as JUnit closes it as soon as all tests are submitted.
+ *
+ * Given to test factories by the {@link CorpusContextResolver}.
+ */
+public final class FactoryResources {
+	private final ExtensionContext.Store store;
+
+	FactoryResources(ExtensionContext.Store store) {
+		this.store = store;
+	}
+
+	/**
+	 * @param resource used by the tests of this factory
+	 * @return the resource
+	 */
+	<T extends AutoCloseable> T closeAfterTests(T resource) {
+		store.put(new Object(), (ExtensionContext.Store.CloseableResource) resource::close);
+		return resource;
+	}
+}
@@ -0,0 +1,137 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.rdf4j.common.exception.ValidationException;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.vocabulary.RDF4J;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.eclipse.rdf4j.sail.shacl.ShaclSail;
+
+import swiss.sib.rdf.sparql.examples.tests.SpexShapes.Report;
+
+/**
+ * Validates each example file on its own, so that the time per file does not
+ * grow with the corpus. Each thread of the validator has one store in which
+ * the spex shapes were loaded, and so compiled, once. A file is added to that
+ * store in a transaction that is validated and then rolled back, leaving only
+ * the shapes for the next file.
+ *
+ * All files are submitted when the validator is made, the tests only wait for
+ * the report of their file. Close to stop the threads and the stores.
+ */
+final class IsolatedShaclValidator implements AutoCloseable {
+	private record Store(Repository repository, RepositoryConnection connection) {
+	}
+
+	private final ExecutorService executor;
+	private final List<Store> stores = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<Store> store = ThreadLocal.withInitial(this::newStore);
+	private final Map<Path, CompletableFuture<Report>> reports = new LinkedHashMap<>();
+
+	/**
+	 * @param files all files that will be validated
+	 */
+	IsolatedShaclValidator(List<Path> files) {
+		this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				Thread.ofPlatform().name("shacl-", 1).daemon().factory());
+		for (Path file : files) {
+			reports.put(file, CompletableFuture.supplyAsync(() -> validate(store.get().connection(), file), executor));
+		}
+	}
+
+	void assertValid(Path file) {
+		CompletableFuture<Report> validated = reports.get(file);
+		Report report = validated == null ? null : validated.join();
+		if (report != null) {
+			fail(report.message(), report.cause());
+		}
+	}
+
+	/**
+	 * @return per file that is not valid, why not, once all files are validated
+	 */
+	Map<Path, Report> reports() {
+		Map<Path, Report> found = new HashMap<>();
+		reports.forEach((file, validated) -> {
+			Report report = validated.join();
+			if (report != null) {
+				found.put(file, report);
+			}
+		});
+		return found;
+	}
+
+	private Store newStore() {
+		Repository repository = new SailRepository(new ShaclSail(new MemoryStore()));
+		RepositoryConnection connection = repository.getConnection();
+		connection.begin();
+		connection.add(SpexShapes.shapes(), RDF4J.SHACL_SHAPE_GRAPH);
+		connection.commit();
+		Store made = new Store(repository, connection);
+		stores.add(made);
+		return made;
+	}
+
+	/**
+	 * @param connection to a store with only the shapes
+	 * @param file       an example file
+	 * @return why the file is not valid, null if it is
+	 */
+	private static Report validate(RepositoryConnection connection, Path file) {
+		try {
+			IRI iri = connection.getValueFactory().createIRI(file.toUri().toString());
+			connection.begin();
+			connection.add(file.toFile(), iri);
+			if (connection.size(iri) == 0) {
+				return new Report(file.toUri() + " has no statements", null);
+			}
+			// Validates the transaction as a commit would, without storing the file
+			connection.prepare();
+			return null;
+		} catch (RDFParseException | RepositoryException | IOException e) {
+			if (e.getCause() instanceof ValidationException ve) {
+				return new Report(file.toUri() + " failed " + ve + '\n' + SpexShapes.validationReportAsString(ve), e);
+			} else {
+				return new Report(file.toUri() + " failed with a non SHACL error", e);
+			}
+		} finally {
+			if (connection.isActive()) {
+				connection.rollback();
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		try {
+			// A store must not be shut down while a file is still added to it
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (Store made : stores) {
+			made.connection().close();
+			made.repository().shutDown();
+		}
+		stores.clear();
+	}
+}
@@ -0,0 +1,175 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.python.embedding.GraalPyResources;
+import org.graalvm.python.embedding.VirtualFileSystem;
+
+/**
+ * A bounded pool of independent GraalPy contexts that each evaluated the same
+ * script. A context can only be entered by one thread at a time, so each call
+ * borrows a whole context. All contexts share one polyglot engine, so the
+ * parsed and compiled Python code is reused between them.
+ *
+ * Contexts are only made when all existing ones are in use, up to the maximum.
+ * A context is made outside of the lock of the pool, so several can start at
+ * the same time and other threads can return or borrow contexts meanwhile.
+ * Work can also be given to the pool's own threads, one per context, so that
+ * nothing runs python on the common fork join pool.
+ */
+final class PythonContextPool implements AutoCloseable {
+	private static final String PYTHON = "python";
+	private static final VirtualFileSystem VFS = VirtualFileSystem.newBuilder()
+			.resourceDirectory("GRAALPY-VFS/swiss.sib.rdf/sparql-examples-utils").build();
+
+	private record Pooled(Context context, Value function) {
+	}
+
+	// Made with the first context, so that an unused pool does not start GraalPy
+	private Engine engine;
+	private final Source script;
+	private final int maximum;
+	private final ExecutorService executor;
+	private final BlockingQueue<Pooled> idle = new LinkedBlockingQueue<>();
+	// The contexts made or being made, a slot is taken before making one
+	private final AtomicInteger slots = new AtomicInteger();
+	private final List<Pooled> all = new ArrayList<>();
+	private volatile boolean closed = false;
+
+	/**
+	 * @param script  python code that evaluates to a function
+	 * @param maximum the number of contexts that may exist at the same time
+	 */
+	PythonContextPool(String script, int maximum) {
+		if (maximum < 1) {
+			throw new IllegalArgumentException("At least one python context is needed");
+		}
+		this.script = Source.create(PYTHON, script);
+		this.maximum = maximum;
+		this.executor = Executors.newFixedThreadPool(maximum,
+				Thread.ofPlatform().name("graalpy-", 1).daemon().factory());
+	}
+
+	/**
+	 * Calls the function of the script in a context that no other thread is using,
+	 * waiting for one to be returned if all are in use.
+	 *
+	 * @param convert   turns the result into a java object, while the context is
+	 *                  still borrowed
+	 * @param arguments to pass to the function
+	 * @return the converted result of the function
+	 */
+	<T> T execute(Function<Value, T> convert, Object... arguments) {
+		Pooled pooled = borrow();
+		try {
+			return convert.apply(pooled.function().execute(arguments));
+		} finally {
+			idle.add(pooled);
+		}
+	}
+
+	/**
+	 * Like {@link #execute(Function, Object...)}, but on a thread of the pool.
+	 *
+	 * @return the converted result of the function, when it is done
+	 */
+	<T> CompletableFuture<T> submit(Function<Value, T> convert, Object... arguments) {
+		return CompletableFuture.supplyAsync(() -> execute(convert, arguments), executor);
+	}
+
+	private Pooled borrow() {
+		checkOpen();
+		Pooled pooled = idle.poll();
+		if (pooled != null) {
+			return pooled;
+		}
+		for (int made = slots.get(); made < maximum; made = slots.get()) {
+			if (slots.compareAndSet(made, made + 1)) {
+				return create();
+			}
+		}
+		try {
+			// Polling, so that a waiting thread notices the pool was closed
+			while ((pooled = idle.poll(100, TimeUnit.MILLISECONDS)) == null) {
+				checkOpen();
+			}
+			return pooled;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for a python context", e);
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Python context pool is closed");
+		}
+	}
+
+	/**
+	 * Makes a context in a slot that the caller took, giving the slot back if that
+	 * fails.
+	 */
+	private Pooled create() {
+		Pooled pooled;
+		try {
+			Context context = GraalPyResources.contextBuilder(VFS).engine(engine()).allowAllAccess(true).build();
+			pooled = new Pooled(context, context.eval(script));
+		} catch (RuntimeException e) {
+			slots.decrementAndGet();
+			throw e;
+		}
+		synchronized (this) {
+			if (!closed) {
+				all.add(pooled);
+				return pooled;
+			}
+		}
+		pooled.context().close(true);
+		throw new IllegalStateException("Python context pool is closed");
+	}
+
+	private synchronized Engine engine() {
+		checkOpen();
+		if (engine == null) {
+			engine = Engine.newBuilder().option("engine.WarnInterpreterOnly", "false").build();
+		}
+		return engine;
+	}
+
+	/**
+	 * @return the number of contexts made so far
+	 */
+	synchronized int size() {
+		return all.size();
+	}
+
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			executor.shutdownNow();
+			for (Pooled pooled : all) {
+				pooled.context().close(true);
+			}
+			all.clear();
+			idle.clear();
+			if (engine != null) {
+				engine.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+/**
+ * How the example files are validated against the spex SHACL shapes.
+ */
+public enum ShaclMode {
+	/**
+	 * All files are added one after the other to one store, each in its own
+	 * commit
+	 */
+	SHARED("ShaclSharedTest"),
+	/**
+	 * Each file is validated in its own small store, in parallel
+	 */
+	ISOLATED("ShaclIsolatedTest"),
+	/**
+	 * All files are added to one store in one transaction, each in its own named
+	 * graph, and validated once
+	 */
+	BULK("ShaclBulkTest");
+
+	private final String tag;
+
+	ShaclMode(String tag) {
+		this.tag = tag;
+	}
+
+	/**
+	 * @return the JUnit tag on the test factory of this mode
+	 */
+	public String tag() {
+		return tag;
+	}
+}
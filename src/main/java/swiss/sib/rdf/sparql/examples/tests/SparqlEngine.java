@@ -0,0 +1,62 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * The SPARQL engines the queries are validated with.
+ */
+public enum SparqlEngine {
+	RDF4J("RDF4j", null, "org.eclipse.rdf4j/rdf4j-queryparser-sparql"),
+	JENA("Jena", null, "org.apache.jena/jena-arq"),
+	BLAZEGRAPH("Blazegraph", "BlazegraphTest", "com.blazegraph/bigdata-core"),
+	// RDFLib itself is pinned in the pom, and so changes with our own version
+	RDFLIB("RDFLib", "PythonTest", "org.graalvm.python/python-embedding");
+
+	private static final String UNKNOWN_VERSION = "unknown";
+
+	private final String label;
+	private final String tag;
+	private final String version;
+
+	SparqlEngine(String label, String tag, String artifact) {
+		this.label = label;
+		this.tag = tag;
+		this.version = version(artifact);
+	}
+
+	public String label() {
+		return label;
+	}
+
+	/**
+	 * @return the JUnit tag on the tests that need this engine, null if the engine
+	 *         is always used
+	 */
+	public String tag() {
+		return tag;
+	}
+
+	/**
+	 * @return the version of the library implementing the engine, as found in its
+	 *         maven metadata on the classpath
+	 */
+	public String version() {
+		return version;
+	}
+
+	private static String version(String artifact) {
+		try (InputStream is = SparqlEngine.class
+				.getResourceAsStream("/META-INF/maven/" + artifact + "/pom.properties")) {
+			if (is != null) {
+				Properties properties = new Properties();
+				properties.load(is);
+				return properties.getProperty("version", UNKNOWN_VERSION);
+			}
+		} catch (IOException e) {
+			// Fall back to the unknown version
+		}
+		return UNKNOWN_VERSION;
+	}
+}
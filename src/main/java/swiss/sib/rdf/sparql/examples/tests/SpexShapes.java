@@ -0,0 +1,55 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import org.eclipse.rdf4j.common.exception.ValidationException;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+
+/**
+ * The spex SHACL shapes the examples are validated with, parsed once.
+ */
+final class SpexShapes {
+	private static final Model SHAPES = parse();
+
+	/**
+	 * @param message why a file is not valid, with the SHACL validation report if
+	 *                there was one
+	 * @param cause   the exception that was thrown, null if none was
+	 */
+	record Report(String message, Throwable cause) {
+	}
+
+	private SpexShapes() {
+
+	}
+
+	/**
+	 * @return the shapes, not to be modified
+	 */
+	static Model shapes() {
+		return SHAPES;
+	}
+
+	static String validationReportAsString(ValidationException ve) {
+		return asTurtle(ve.validationReportAsModel());
+	}
+
+	static String asTurtle(Model model) {
+		var boas = new ByteArrayOutputStream();
+		Rio.write(model, boas, RDFFormat.TURTLE);
+		return boas.toString();
+	}
+
+	private static Model parse() {
+		try (InputStream is = SpexShapes.class.getResourceAsStream("/spex.shacl")) {
+			return Rio.parse(is, RDFFormat.TURTLE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -12,61 +12,99 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RiotException;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicNode;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 
-import swiss.sib.rdf.sparql.examples.FindFiles;
+import com.bigdata.rdf.sail.sparql.Bigdata2ASTSPARQLParser;
 
+import swiss.sib.rdf.sparql.examples.CorpusContext;
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+@ExtendWith(CorpusContextResolver.class)
 public class ValidateSparqlExamplesTest {
 
 	@TestFactory
-	public Stream<DynamicTest> testAllWithJena() throws URISyntaxException, IOException {
-		Function<Path, Executable> tester = p -> () -> CreateTestWithJenaMethods.testQueryValid(p);
-		return testAll(tester);
+	public Stream<DynamicTest> testAllWithJena(CorpusContext corpus, FactoryResources resources)
+			throws URISyntaxException, IOException {
+		corpus.engineStartup().start(SparqlEngine.JENA);
+		Function<Example, Executable> tester = p -> () -> CreateTestWithJenaMethods.testQueryValid(p);
+		return testAllWithEngine(corpus, resources, SparqlEngine.JENA, tester,
+				qs -> qs.stream().map(CreateTestWithJenaMethods::parseError).toList());
 	}
 
 	@TestFactory
-	public Stream<DynamicTest> testAllWithRDF4j() throws URISyntaxException, IOException {
-		Function<Path, Executable> tester = p -> () -> CreateTestWithRDF4jMethods.testQueryValid(p);
-		return testAll(tester);
+	public Stream<DynamicTest> testAllWithRDF4j(CorpusContext corpus, FactoryResources resources)
+			throws URISyntaxException, IOException {
+		corpus.engineStartup().start(SparqlEngine.RDF4J);
+		Function<Example, Executable> tester = p -> () -> CreateTestWithRDF4jMethods.testQueryValid(p);
+		return testAllWithEngine(corpus, resources, SparqlEngine.RDF4J, tester,
+				qs -> qs.stream().map(CreateTestWithRDF4jMethods::parseError).toList());
 	}
 	
 	@Tag("VoIDTest")
 	@TestFactory
-	public Stream<DynamicTest> testAllWithRDF4jVoID() throws URISyntaxException, IOException {
-		return testAll(CreateTestWithRDF4jMethods::testQueryMatchesVoid);
+	public Stream<DynamicTest> testAllWithRDF4jVoID(CorpusContext corpus) throws URISyntaxException, IOException {
+		return testAll(corpus, CreateTestWithRDF4jMethods::testQueryMatchesVoid);
 	}
 	
+	@Tag("BlazegraphTest")
 	@TestFactory
-	public Stream<DynamicTest> testAllWithBigData() throws IOException {
-		Function<Path, Executable> tester = p -> () -> CreateTestWithBigDataMethods.testQueryValid(p);
-		return testAll(tester);
+	public Stream<DynamicTest> testAllWithBigData(CorpusContext corpus, FactoryResources resources)
+			throws IOException {
+		corpus.engineStartup().start(SparqlEngine.BLAZEGRAPH);
+		Function<Example, Executable> tester = p -> () -> CreateTestWithBigDataMethods.testQueryValid(p);
+		return testAllWithEngine(corpus, resources, SparqlEngine.BLAZEGRAPH, tester, qs -> {
+			Bigdata2ASTSPARQLParser parser = new Bigdata2ASTSPARQLParser();
+			return qs.stream().map(q -> CreateTestWithBigDataMethods.parseError(parser, q)).toList();
+		});
 	}
 	
+	@Tag("PythonTest")
 	@TestFactory
-	public Stream<DynamicTest> testAllWithRdflib() throws IOException {
-		var pyTester = new CreateTestWithPythonRdfLibMethods();
-		Function<Path, Executable> tester = p -> () -> pyTester.testQueryValid(p);
-		return testAll(tester);
+	public Stream<DynamicTest> testAllWithRdflib(CorpusContext corpus, FactoryResources resources)
+			throws IOException {
+		var pyTester = resources.closeAfterTests(new CreateTestWithPythonRdfLibMethods());
+		corpus.engineStartup().start(pyTester);
+		// With a validation cache only the queries that are not in it go to RDFLib
+		Stream<String> queries = corpus.corpus().stream().flatMap(Example::queryStrings);
+		Optional<ValidationCache> cache = corpus.validationCache();
+		if (cache.isPresent()) {
+			queries = cache.get().notCached(SparqlEngine.RDFLIB, queries);
+		}
+		var batched = pyTester.batched(queries);
+		Function<Example, Executable> tester = p -> () -> batched.testQueryValid(p);
+		return testAllWithEngine(corpus, resources, SparqlEngine.RDFLIB, tester, batched::parseErrors);
 	}
 
+	// The public endpoints are not asked by many threads at once
 	@Tag("SlowTest")
 	@TestFactory
-	public Stream<DynamicTest> testAllService() throws IOException {
-		Function<Path, Stream<String>> tester = CreateTestWithRDF4jMethods::extractServiceEndpoints;
+	@Execution(ExecutionMode.SAME_THREAD)
+	public Stream<DynamicTest> testAllService(CorpusContext corpus) throws IOException {
+		Function<Example, Stream<String>> tester = CreateTestWithRDF4jMethods::extractServiceEndpoints;
 		Consumer<String> consumer = s -> {
 			try (HttpClient client = HttpClient.newHttpClient()) {
 				HttpRequest askAnything = HttpRequest.newBuilder()
@@ -94,41 +132,102 @@ public class ValidateSparqlExamplesTest {
 			}
 		};
 		Function<Stream<String>, Stream<DynamicTest>> test = iris ->  iris.distinct().map(s -> DynamicTest.dynamicTest(s, () -> consumer.accept(s)));
-		return testAllAsOne(tester, test);
+		return testAllAsOne(corpus, tester, test);
 	}
 
+	/**
+	 * The queries run on the concurrent query runner, which limits how many go to
+	 * each endpoint. The first test of an endpoint submits the queries of all
+	 * tests of that endpoint, then each test waits for its own. So only the
+	 * endpoints of the tests JUnit selected are queried. With parallel tests
+	 * several endpoints are tested at the same time.
+	 * 
+	 * Examples without a target endpoint, or that can not be parsed, have a test
+	 * outside of the endpoints, that only checks they were parsed.
+	 * 
+	 * @param corpus    the examples to run
+	 * @param resources closes the runner and the repositories after the tests
+	 * @return the tests, per endpoint
+	 */
 	@TestFactory
 	@Tag("SlowTest")
-	public Stream<DynamicTest> testAllQueriesRun() throws URISyntaxException, IOException {
-		Function<Path, Executable> tester = p -> () -> CreateTestWithRDF4jMethods.testQueryRuns(p);
-		return testAll(tester);
+	public Stream<DynamicNode> testAllQueriesRun(CorpusContext corpus, FactoryResources resources)
+			throws URISyntaxException, IOException {
+		EndpointRepositories repositories = resources.closeAfterTests(new EndpointRepositories());
+		ConcurrentQueryRunner runner = resources.closeAfterTests(
+				new ConcurrentQueryRunner(corpus.queryConcurrency(), corpus.perEndpointConcurrency()));
+		List<DynamicNode> untargeted = new ArrayList<>();
+		Map<String, List<Example>> byEndpoint = new TreeMap<>();
+		for (Example example : corpus.corpus().examples()) {
+			Set<String> targets = CreateTestWithRDF4jMethods.targets(example);
+			if (targets.isEmpty()) {
+				untargeted.add(createTest(p -> () -> ExampleAssertions.assertParsed(p), example));
+			}
+			for (String endpoint : targets) {
+				byEndpoint.computeIfAbsent(endpoint, e -> new ArrayList<>()).add(example);
+			}
+		}
+		Stream<DynamicNode> perEndpoint = byEndpoint.entrySet().stream().map(en -> DynamicContainer
+				.dynamicContainer(en.getKey(), testAllOnEndpoint(en.getKey(), en.getValue(), repositories, runner)));
+		return Stream.concat(untargeted.stream(), perEndpoint);
+	}
+
+	private Stream<DynamicTest> testAllOnEndpoint(String endpoint, List<Example> examples,
+			EndpointRepositories repositories, ConcurrentQueryRunner runner) {
+		List<Executable> waits = runner.submitOnFirstTest(endpoint, examples.stream().<Executable>map(
+				e -> () -> CreateTestWithRDF4jMethods.testQueryRuns(e, endpoint, repositories)).toList());
+		return IntStream.range(0, examples.size()).mapToObj(i -> createTest(e -> waits.get(i), examples.get(i)));
 	}
 
 	@TestFactory
-	public Stream<DynamicTest> testPrefixDeclarations() throws IOException {
-		return FindFiles.allPrefixFiles().flatMap(this::testPrefixes);
+	public Stream<DynamicTest> testPrefixDeclarations(CorpusContext corpus) throws IOException {
+		return corpus.allPrefixFiles().flatMap(this::testPrefixes);
+	}
+
+	private Stream<DynamicTest> testAll(CorpusContext corpus, Function<Example, Executable> tester)
+			throws IOException {
+		return corpus.corpus().stream().map(p -> createTest(tester, p)).filter(Objects::nonNull);
 	}
 
-	private Stream<DynamicTest> testAll(Function<Path, Executable> tester) throws IOException {
-		return FindFiles.sparqlExamples().map(p -> createTest(tester, p.getParent(), p)).filter(Objects::nonNull);
+	/**
+	 * Without a validation cache the tester is used, with one the parse errors are
+	 * only asked for queries that are not yet in the cache. With an engine matrix
+	 * the outcome of each test is also recorded there.
+	 */
+	private Stream<DynamicTest> testAllWithEngine(CorpusContext corpus, FactoryResources resources, SparqlEngine engine,
+			Function<Example, Executable> tester, Function<List<String>, List<String>> parseErrors)
+			throws IOException {
+		Optional<ValidationCache> validationCache = corpus.validationCache();
+		Function<Example, Executable> checked = tester;
+		if (validationCache.isPresent()) {
+			ValidationCache cache = validationCache.get();
+			resources.closeAfterTests(cache::save);
+			checked = p -> () -> cache.assertValid(engine, p, parseErrors);
+		}
+		Optional<EngineMatrix> matrix = corpus.engineMatrix();
+		if (matrix.isPresent()) {
+			checked = matrix.get().recording(engine, checked);
+		}
+		return testAll(corpus, checked);
 	}
 
-	private <T> Stream<DynamicTest> testAllAsOne(Function<Path, Stream<T>> tester,
+	private <T> Stream<DynamicTest> testAllAsOne(CorpusContext corpus, Function<Example, Stream<T>> tester,
 			Function<Stream<T>, Stream<DynamicTest>> test) throws IOException {
-		return test.apply(FindFiles.sparqlExamples().flatMap(tester::apply));
+		return test.apply(corpus.corpus().stream().flatMap(tester::apply));
 	}
 	
 	@TestFactory
-    public Stream<DynamicTest> testAllServicesAnnotated() throws URISyntaxException, IOException {
+    public Stream<DynamicTest> testAllServicesAnnotated(CorpusContext corpus) throws URISyntaxException, IOException {
 
-            Function<Path, Executable> tester = p -> () -> CreateTestWithRDF4jMethods.testQueryAnnotatedWithFederatesWith(p);
-            return testAll(tester);
+            Function<Example, Executable> tester = p -> () -> CreateTestWithRDF4jMethods.testQueryAnnotatedWithFederatesWith(p);
+            return testAll(corpus, tester);
     }
 
 
-	private DynamicTest createTest(Function<Path, Executable> tester, Path projectPath, Path specificExamplePath) {
+	private DynamicTest createTest(Function<Example, Executable> tester, Example example) {
+		Path specificExamplePath = example.path();
 		String testName = pathToTestName(specificExamplePath);
-		Executable apply = tester.apply(specificExamplePath);
+		Executable apply = tester.apply(example);
 		if (apply != null) {
 			return DynamicTest.dynamicTest(testName, specificExamplePath.toUri(), apply);
 		} else {
@@ -4,16 +4,16 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.rdf4j.common.exception.ValidationException;
 import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.vocabulary.RDF4J;
 import org.eclipse.rdf4j.repository.Repository;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
@@ -21,87 +21,172 @@ import org.eclipse.rdf4j.repository.RepositoryException;
 import org.eclipse.rdf4j.repository.sail.SailRepository;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
-import org.eclipse.rdf4j.rio.Rio;
 import org.eclipse.rdf4j.sail.memory.MemoryStore;
 import org.eclipse.rdf4j.sail.shacl.ShaclSail;
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.extension.ExtendWith;
 
-import swiss.sib.rdf.sparql.examples.FindFiles;
+import swiss.sib.rdf.sparql.examples.CorpusContext;
+import swiss.sib.rdf.sparql.examples.ExampleIriIndex;
 
+@ExtendWith(CorpusContextResolver.class)
 public class ValidateSparqlExamplesWithSHACLTest {
-	private static MemoryStore memoryStore;
-	private static Repository repo;
+	// Only for validating single files with the static methods
+	private static ShaclStore shared;
 
-	private static ShaclSail shaclSail;
+	/**
+	 * A SHACL sail with the spex shapes. The examples of one corpus are all added
+	 * to the same store, so that duplicate example IRIs are found.
+	 */
+	private static final class ShaclStore implements AutoCloseable {
+		private final MemoryStore memoryStore;
+		private final ShaclSail shaclSail;
+		private final Repository repo;
 
-	@BeforeAll
-	public static void setup() {
-		memoryStore = new MemoryStore();
-		memoryStore.init();
-
-		shaclSail = new ShaclSail(memoryStore);
-		repo = new SailRepository(shaclSail);
-
-		try (RepositoryConnection connection = repo.getConnection();
-				var is = ValidateSparqlExamplesWithSHACLTest.class.getResourceAsStream("/spex.shacl")) {
-			// add shapes
-			connection.begin();
-			connection.add(is, RDFFormat.TURTLE, RDF4J.SHACL_SHAPE_GRAPH);
-			connection.commit();
-		} catch (RDFParseException | RepositoryException | IOException e) {
-			fail(e);
+		private ShaclStore() {
+			memoryStore = new MemoryStore();
+			memoryStore.init();
+
+			shaclSail = new ShaclSail(memoryStore);
+			repo = new SailRepository(shaclSail);
+
+			try (RepositoryConnection connection = repo.getConnection();
+					var is = ValidateSparqlExamplesWithSHACLTest.class.getResourceAsStream("/spex.shacl")) {
+				// add shapes
+				connection.begin();
+				connection.add(is, RDFFormat.TURTLE, RDF4J.SHACL_SHAPE_GRAPH);
+				connection.commit();
+			} catch (RDFParseException | RepositoryException | IOException e) {
+				fail(e);
+			}
+		}
+
+		// Examples are added one at a time, so that a failure is the fault of one file
+		private synchronized void validate(Path p) {
+			assertTrue(Files.exists(p));
+			try (RepositoryConnection connection = repo.getConnection()) {
+
+				IRI iri = connection.getValueFactory().createIRI(p.toUri().toString());
+				connection.begin();
+				connection.add(p.toFile(), iri);
+				connection.commit();
+				assertFalse(connection.size() == 0);
+			} catch (RDFParseException | RepositoryException | IOException e) {
+				if (e.getCause() instanceof ValidationException ve) {
+					String report = SpexShapes.validationReportAsString(ve);
+					fail(p.toUri() + " failed " + ve + '\n' + report);
+				} else {
+					fail(p.toUri() + " failed with a non SHACL error", e);
+				}
+			}
 		}
+
+		@Override
+		public void close() {
+			repo.shutDown();
+			shaclSail.shutDown();
+			memoryStore.shutDown();
+		}
+	}
+
+	public static void setup() {
+		shared = new ShaclStore();
 	}
 
-	@AfterAll
 	public static void tearDown() {
-		repo.shutDown();
-		shaclSail.shutDown();
-		memoryStore.shutDown();
+		shared.close();
 	}
 
 	/**
 	 * Use shacl to test all the turtle files contain at least one rdfs:comment and
 	 * one query. Also makes a test that all example IRIs are unique.
 	 * 
+	 * @param corpus    the examples to test
+	 * @param resources closes the store when all files are tested
 	 * @return a test for each file.
-	 * @throws URISyntaxException
 	 * @throws IOException
 	 */
+	@Tag("ShaclSharedTest")
 	@TestFactory
-	public Stream<DynamicTest> testShaclConstraints() throws IOException {
-		Stream<Path> paths = FindFiles.sparqlExamples();
+	public Stream<DynamicTest> testShaclConstraints(CorpusContext corpus, FactoryResources resources)
+			throws IOException {
+		ShaclStore store = resources.closeAfterTests(new ShaclStore());
+		Stream<Path> paths = corpus.sparqlExamples();
 		
 		return paths.map(p -> DynamicTest.dynamicTest(
-				"Shacl testing: " + p.getParent().getFileName() + '/' + p.getFileName(), () -> testValidatingAFile(p)));
+				"Shacl testing: " + p.getParent().getFileName() + '/' + p.getFileName(), () -> store.validate(p)));
 	}
 
-	static void testValidatingAFile(Path p) {
-		assertTrue(Files.exists(p));
-		try (RepositoryConnection connection = repo.getConnection()) {
-
-			IRI iri = connection.getValueFactory().createIRI(p.toUri().toString());
-			connection.begin();
-			connection.add(p.toFile(), iri);
-			connection.commit();
-			assertFalse(connection.size() == 0);
-		} catch (RDFParseException | RepositoryException | IOException e) {
-			if (e.getCause() instanceof ValidationException ve) {
-				String report = validationReportAsString(ve);
-				fail(p.toUri() + " failed " + ve + '\n' + report);
-			} else {
-				fail(p.toUri() + " failed with a non SHACL error", e);
-			}
-		}
+	/**
+	 * Use shacl to test each turtle file on its own, in parallel. Example IRIs
+	 * used in more than one file are found by {@link #testExampleIrisUnique}.
+	 * 
+	 * @param corpus    the examples to test
+	 * @param resources stops the validator when all files are tested
+	 * @return a test for each file.
+	 * @throws IOException
+	 */
+	@Tag("ShaclIsolatedTest")
+	@TestFactory
+	public Stream<DynamicTest> testShaclConstraintsPerFile(CorpusContext corpus, FactoryResources resources)
+			throws IOException {
+		List<Path> paths = corpus.sparqlExamples().toList();
+		IsolatedShaclValidator validator = resources.closeAfterTests(new IsolatedShaclValidator(paths));
+		return paths.stream().map(p -> DynamicTest.dynamicTest(
+				"Shacl testing: " + p.getParent().getFileName() + '/' + p.getFileName(),
+				() -> validator.assertValid(p)));
+	}
+
+	/**
+	 * Use shacl to test all turtle files in one transaction, and report the
+	 * results per file.
+	 * 
+	 * @param corpus    the examples to test
+	 * @param resources stops the validator when all files are tested
+	 * @return a test for each file, and one that all results belong to a file.
+	 * @throws IOException
+	 */
+	@Tag("ShaclBulkTest")
+	@TestFactory
+	public Stream<DynamicTest> testShaclConstraintsInBulk(CorpusContext corpus, FactoryResources resources)
+			throws IOException {
+		List<Path> paths = corpus.sparqlExamples().toList();
+		BulkShaclValidator validator = resources.closeAfterTests(new BulkShaclValidator(paths));
+		Stream<DynamicTest> perFile = paths.stream()
+				.map(p -> DynamicTest.dynamicTest(
+						"Shacl testing: " + p.getParent().getFileName() + '/' + p.getFileName(),
+						() -> validator.assertValid(p)));
+		return Stream.concat(perFile, Stream.of(DynamicTest.dynamicTest("Shacl testing: results of no example",
+				validator::assertAllResultsMatched)));
+	}
+
+	/**
+	 * Test that the example IRIs of each file are not used in any other file of the
+	 * selected projects.
+	 * 
+	 * @param corpus the examples to test
+	 * @return a test for each file.
+	 * @throws IOException
+	 */
+	@TestFactory
+	public Stream<DynamicTest> testExampleIrisUnique(CorpusContext corpus) throws IOException {
+		ExampleIriIndex index = corpus.exampleIris();
+		return corpus.sparqlExamples().map(p -> DynamicTest.dynamicTest(
+				"Unique example IRIs: " + p.getParent().getFileName() + '/' + p.getFileName(), () -> {
+					Map<IRI, List<Path>> duplicates = index.duplicatesOf(p);
+					if (!duplicates.isEmpty()) {
+						fail(duplicates.entrySet().stream()
+								.map(en -> en.getKey() + " is also used in " + en.getValue().stream()
+										.filter(f -> !f.equals(p)).map(Path::toString)
+										.collect(Collectors.joining(", ")))
+								.collect(Collectors.joining("\n")));
+					}
+				}));
 	}
 
-	private static String validationReportAsString(ValidationException ve) {
-		Model vem = ve.validationReportAsModel();
-		var boas = new ByteArrayOutputStream();
-		Rio.write(vem, boas, RDFFormat.TURTLE);
-		return boas.toString();
+	static void testValidatingAFile(Path p) {
+		shared.validate(p);
 	}
 }
@@ -0,0 +1,165 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+import swiss.sib.rdf.sparql.examples.RenderManifest;
+import swiss.sib.rdf.sparql.examples.Tsv;
+
+/**
+ * Remembers whether each engine could parse a query, so that unchanged queries
+ * are not parsed again in later runs. Failures are remembered with their
+ * message, and reported again as failures.
+ *
+ * The cache directory has one plain text file per engine and engine version,
+ * one line per query with a hash of the query, our own version and the engine
+ * version, a tab and {@value #VALID} or the escaped parse error. Only the
+ * queries that were validated in the current run are saved, so queries that
+ * were changed or removed do not stay in the files forever.
+ *
+ * A cache is kept by the {@link swiss.sib.rdf.sparql.examples.CorpusContext}
+ * of the tests, which starts a new run of it when a test plan starts.
+ */
+public final class ValidationCache {
+	static final String VALID = "OK";
+
+	private final Path directory;
+	private final Map<SparqlEngine, Map<String, String>> outcomes = new ConcurrentHashMap<>();
+	private final Map<SparqlEngine, Set<String>> seen = new ConcurrentHashMap<>();
+
+	private ValidationCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @param directory where the cache is kept, made if it does not exist
+	 * @return a cache of that directory, its files are read on first use
+	 */
+	public static ValidationCache open(Path directory) {
+		return new ValidationCache(directory.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Forgets which queries were validated, so that the next {@link #save()} only
+	 * keeps the queries validated from now on.
+	 */
+	public synchronized void startRun() {
+		seen.clear();
+	}
+
+	/**
+	 * Fails if the engine could not parse one of the queries of the example. Only
+	 * the queries that are not in the cache are given to the engine.
+	 *
+	 * @param engine      that is tested
+	 * @param example     to test
+	 * @param parseErrors for a list of queries the parse error of each one, null
+	 *                    for those that could be parsed
+	 */
+	public void assertValid(SparqlEngine engine, Example example, Function<List<String>, List<String>> parseErrors) {
+		ExampleAssertions.assertParsed(example);
+		List<String> queries = example.queryStrings().toList();
+		Map<String, String> cached = outcomes(engine);
+		List<String> hashes = queries.stream().map(q -> hash(engine, q)).toList();
+		seen.computeIfAbsent(engine, e -> ConcurrentHashMap.newKeySet()).addAll(hashes);
+		List<String> toParse = new ArrayList<>();
+		for (int i = 0; i < queries.size(); i++) {
+			if (!cached.containsKey(hashes.get(i))) {
+				toParse.add(queries.get(i));
+			}
+		}
+		if (!toParse.isEmpty()) {
+			List<String> errors = parseErrors.apply(toParse);
+			for (int i = 0; i < toParse.size(); i++) {
+				String error = errors.get(i);
+				cached.put(hash(engine, toParse.get(i)), error == null ? VALID : Tsv.escape(error));
+			}
+		}
+		for (int i = 0; i < queries.size(); i++) {
+			String outcome = cached.get(hashes.get(i));
+			if (!VALID.equals(outcome)) {
+				fail("Query not valid according to " + engine.label() + ": " + Tsv.unescape(outcome) + "\n"
+						+ queries.get(i));
+			}
+		}
+	}
+
+	/**
+	 * @param engine  that is tested
+	 * @param queries SPARQL queries
+	 * @return those queries that the engine would be asked to parse, as their
+	 *         outcome is not in the cache
+	 */
+	public Stream<String> notCached(SparqlEngine engine, Stream<String> queries) {
+		Map<String, String> cached = outcomes(engine);
+		return queries.filter(q -> !cached.containsKey(hash(engine, q)));
+	}
+
+	private static String hash(SparqlEngine engine, String query) {
+		return RenderManifest.hash(engine.name(), engine.version(), query);
+	}
+
+	private Map<String, String> outcomes(SparqlEngine engine) {
+		return outcomes.computeIfAbsent(engine, e -> {
+			Map<String, String> loaded = new ConcurrentHashMap<>();
+			Path file = file(e);
+			if (Files.exists(file)) {
+				try {
+					for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+						int tab = line.indexOf('\t');
+						if (tab > 0) {
+							loaded.put(line.substring(0, tab), line.substring(tab + 1));
+						}
+					}
+				} catch (IOException ioe) {
+					throw new UncheckedIOException(ioe);
+				}
+			}
+			return loaded;
+		});
+	}
+
+	private Path file(SparqlEngine engine) {
+		return directory.resolve(engine.name().toLowerCase() + '-' + engine.version() + ".tsv");
+	}
+
+	/**
+	 * Writes the outcomes of the queries that were validated, dropping those that
+	 * were in the files but not validated in this run.
+	 *
+	 * @throws IOException if the cache directory or files can not be written
+	 */
+	public synchronized void save() throws IOException {
+		Files.createDirectories(directory);
+		for (Map.Entry<SparqlEngine, Set<String>> used : seen.entrySet()) {
+			Map<String, String> known = outcomes(used.getKey());
+			Path file = file(used.getKey());
+			Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+			try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+				for (Map.Entry<String, String> en : new TreeMap<>(known).entrySet()) {
+					if (used.getValue().contains(en.getKey())) {
+						w.append(en.getKey()).append('\t').append(en.getValue());
+						w.newLine();
+					}
+				}
+			}
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChangedFilesTest {
+	@TempDir
+	Path tempDir;
+
+	private Path examples;
+	private Path uniprot;
+	private Path rhea;
+
+	@BeforeEach
+	public void repository() throws IOException, InterruptedException {
+		examples = Files.createDirectories(tempDir.resolve("examples"));
+		uniprot = Files.createDirectories(examples.resolve("UniProt"));
+		rhea = Files.createDirectories(examples.resolve("Rhea"));
+		Files.writeString(uniprot.resolve("prefixes.ttl"), "# uniprot\n");
+		Files.writeString(uniprot.resolve("1.ttl"), "# 1\n");
+		Files.writeString(uniprot.resolve("2.ttl"), "# 2\n");
+		Files.writeString(rhea.resolve("1.ttl"), "# 1\n");
+		Files.writeString(tempDir.resolve("README.md"), "# examples\n");
+		git("init", "--quiet", "--initial-branch=main");
+		commit("Initial examples");
+		git("checkout", "--quiet", "-b", "feature");
+	}
+
+	@Test
+	public void changesOfTheBranchAndTheWorkTree() throws IOException, InterruptedException {
+		Files.writeString(uniprot.resolve("1.ttl"), "# 1 changed\n");
+		commit("Change an example on the branch");
+		Files.writeString(rhea.resolve("2.ttl"), "# new, not committed\n");
+		Files.writeString(uniprot.resolve("2.ttl"), "# 2 changed, not committed\n");
+		Files.writeString(tempDir.resolve("README.md"), "# outside the examples\n");
+
+		assertEquals(Set.of(absolute(uniprot.resolve("1.ttl")), absolute(uniprot.resolve("2.ttl")),
+				absolute(rhea.resolve("2.ttl"))), ChangedFiles.since(examples, "main"));
+	}
+
+	@Test
+	public void laterCommitsOnTheBaseAreNotChanges() throws IOException, InterruptedException {
+		Files.writeString(uniprot.resolve("1.ttl"), "# 1 changed on the branch\n");
+		commit("Change on the branch");
+		git("checkout", "--quiet", "main");
+		Files.writeString(rhea.resolve("1.ttl"), "# 1 changed on main\n");
+		commit("Change on main");
+		git("checkout", "--quiet", "feature");
+
+		assertEquals(Set.of(absolute(uniprot.resolve("1.ttl"))), ChangedFiles.since(examples, "main"));
+	}
+
+	@Test
+	public void deletedFilesAreNotChanges() throws IOException, InterruptedException {
+		Files.delete(uniprot.resolve("2.ttl"));
+		commit("Remove an example");
+
+		assertEquals(Set.of(), ChangedFiles.since(examples, "main"));
+	}
+
+	@Test
+	public void unknownRef() {
+		assertThrows(IOException.class, () -> ChangedFiles.since(examples, "no-such-branch"));
+	}
+
+	@Test
+	public void changedPrefixesSelectTheExamplesBelowThem() throws IOException, InterruptedException {
+		Files.writeString(uniprot.resolve("prefixes.ttl"), "# uniprot changed\n");
+		Files.writeString(rhea.resolve("1.ttl"), "# 1 changed\n");
+		commit("Change prefixes and an example");
+
+		try (CorpusContext context = CorpusContext.forProjects(examples, "all")) {
+			context.withChanged(ChangedFiles.since(examples, "main"));
+			assertEquals(List.of(absolute(rhea.resolve("1.ttl")), absolute(uniprot.resolve("1.ttl")),
+					absolute(uniprot.resolve("2.ttl"))), sorted(context.sparqlExamples()));
+			assertEquals(List.of(absolute(uniprot.resolve("prefixes.ttl"))), sorted(context.allPrefixFiles()));
+		}
+	}
+
+	@Test
+	public void onlyChangedExamplesAreSelected() throws IOException, InterruptedException {
+		Files.writeString(uniprot.resolve("2.ttl"), "# 2 changed\n");
+		commit("Change an example");
+
+		try (CorpusContext context = CorpusContext.forProjects(examples, "all")) {
+			context.withChanged(ChangedFiles.since(examples, "main"));
+			assertEquals(List.of(absolute(uniprot.resolve("2.ttl"))), sorted(context.sparqlExamples()));
+			assertEquals(List.of(), sorted(context.allPrefixFiles()));
+			context.withChanged(null);
+			assertEquals(3, sorted(context.sparqlExamples()).size());
+		}
+	}
+
+	private void commit(String message) throws IOException, InterruptedException {
+		git("add", "--all");
+		git("-c", "user.name=Test", "-c", "user.email=test@example.org", "-c", "commit.gpgsign=false", "commit",
+				"--quiet", "-m", message);
+	}
+
+	private void git(String... arguments) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>(List.of("git", "-C", tempDir.toString()));
+		command.addAll(List.of(arguments));
+		Process process = new ProcessBuilder(command).inheritIO().start();
+		assertEquals(0, process.waitFor(), String.join(" ", command));
+	}
+
+	private static Path absolute(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	private static List<Path> sorted(Stream<Path> paths) {
+		try (paths) {
+			return paths.map(ChangedFilesTest::absolute).sorted().toList();
+		}
+	}
+}
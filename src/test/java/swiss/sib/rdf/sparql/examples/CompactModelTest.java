@@ -0,0 +1,122 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.SHACL;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.junit.jupiter.api.Test;
+
+import swiss.sib.rdf.sparql.examples.vocabularies.SchemaDotOrg;
+
+public class CompactModelTest {
+
+	@Test
+	public void sameStatementsInSameOrder() {
+		Model model = parse(ExamplesUsedInTest.rhea9);
+		CompactModel compact = CompactModel.copyOf(model);
+		assertEquals(model.size(), compact.size());
+		assertEquals(new ArrayList<>(model), new ArrayList<>(compact));
+		for (Statement st : model) {
+			assertTrue(compact.contains(st));
+		}
+	}
+
+	@Test
+	public void lookups() {
+		Model model = parse(ExamplesUsedInTest.rhea9);
+		CompactModel compact = CompactModel.copyOf(model);
+		for (Statement st : model.getStatements(null, RDF.TYPE, SHACL.SPARQL_EXECUTABLE)) {
+			assertEquals(list(model.filter(st.getSubject(), null, null)),
+					list(compact.filter(st.getSubject(), null, null)));
+			assertEquals(list(model.getStatements(st.getSubject(), SchemaDotOrg.TARGET, null)),
+					list(compact.getStatements(st.getSubject(), SchemaDotOrg.TARGET, null)));
+		}
+		IRI absent = SimpleValueFactory.getInstance().createIRI("https://example.org/absent");
+		assertFalse(compact.contains(absent, null, null));
+		assertTrue(compact.filter(null, absent, null).isEmpty());
+	}
+
+	@Test
+	public void duplicatesAreDropped() {
+		Model model = parse(ExamplesUsedInTest.simple);
+		CompactModel compact = CompactModel.builder().addAll(model).addAll(model).build();
+		assertEquals(model.size(), compact.size());
+	}
+
+	@Test
+	public void indexedLookupsOnALargerModel() {
+		SimpleValueFactory vf = SimpleValueFactory.getInstance();
+		Model model = new LinkedHashModel();
+		IRI[] predicates = { RDF.TYPE, SchemaDotOrg.TARGET, SHACL.SELECT };
+		for (int i = 0; i < 300; i++) {
+			IRI subject = vf.createIRI("https://example.org/" + (i % 100));
+			IRI predicate = predicates[i % predicates.length];
+			model.add(subject, predicate, vf.createLiteral(i % 7));
+		}
+		CompactModel.Builder builder = CompactModel.builder();
+		// Added twice, so that duplicates are dropped while the rows grow
+		builder.addAll(model).addAll(model);
+		CompactModel compact = builder.build();
+		assertEquals(model.size(), compact.size());
+		assertTrue(compact.size() > 64);
+		assertEquals(new ArrayList<>(model), new ArrayList<>(compact));
+		for (int i = 0; i < 100; i++) {
+			IRI subject = vf.createIRI("https://example.org/" + i);
+			assertEquals(list(model.getStatements(subject, null, null)),
+					list(compact.getStatements(subject, null, null)));
+			assertEquals(list(model.filter(subject, RDF.TYPE, null)), list(compact.filter(subject, RDF.TYPE, null)));
+		}
+		for (IRI predicate : predicates) {
+			assertEquals(list(model.getStatements(null, predicate, null)),
+					list(compact.getStatements(null, predicate, null)));
+		}
+		assertFalse(compact.contains(vf.createIRI("https://example.org/100"), null, null));
+		assertTrue(compact.contains(null, null, vf.createLiteral(6)));
+	}
+
+	@Test
+	public void readOnly() {
+		CompactModel compact = CompactModel.copyOf(parse(ExamplesUsedInTest.simple));
+		assertThrows(UnsupportedOperationException.class, () -> compact.add(RDF.TYPE, RDF.TYPE, RDF.TYPE));
+	}
+
+	private static List<Statement> list(Iterable<Statement> statements) {
+		List<Statement> list = new ArrayList<>();
+		statements.forEach(list::add);
+		return list;
+	}
+
+	private Model parse(String ttl) {
+		RDFParser rdfParser = Rio.createParser(RDFFormat.TURTLE);
+		Model model = new LinkedHashModel();
+		rdfParser.setRDFHandler(new StatementCollector(model));
+		try (InputStream newInputStream = new ByteArrayInputStream(ttl.getBytes(StandardCharsets.UTF_8))) {
+			rdfParser.parse(newInputStream);
+		} catch (RDFParseException | RDFHandlerException | IOException e) {
+			fail(e);
+		}
+		return model;
+	}
+}
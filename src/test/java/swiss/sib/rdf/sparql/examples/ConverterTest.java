@@ -0,0 +1,65 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import picocli.CommandLine;
+
+public class ConverterTest {
+	private static final String STALE = "stale";
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void incrementalOnlyRendersWhatChanged() throws IOException {
+		Path rhea = Files.createDirectories(tempDir.resolve("Rhea"));
+		Files.writeString(rhea.resolve("9.ttl"), ExamplesUsedInTest.rhea9);
+		Files.writeString(rhea.resolve("10.ttl"), ExamplesUsedInTest.simple);
+		Path nine = rhea.resolve("9.md");
+		Path ten = rhea.resolve("10.md");
+		Path index = rhea.resolve("index.md");
+
+		assertEquals(0, convert());
+		assertTrue(Files.exists(nine) && Files.exists(ten) && Files.exists(index));
+		assertTrue(Files.exists(tempDir.resolve(RenderManifest.FILE_NAME)));
+
+		markStale(nine, ten, index);
+		assertEquals(0, convert());
+		assertEquals(STALE, Files.readString(nine));
+		assertEquals(STALE, Files.readString(ten));
+		assertEquals(STALE, Files.readString(index));
+
+		// Same content under another name, the index must list the new name
+		Files.move(rhea.resolve("10.ttl"), rhea.resolve("11.ttl"));
+		assertEquals(0, convert());
+		assertEquals(STALE, Files.readString(nine));
+		assertNotEquals(STALE, Files.readString(rhea.resolve("11.md")));
+		assertNotEquals(STALE, Files.readString(index));
+
+		markStale(nine, index);
+		Files.writeString(rhea.resolve("9.ttl"), ExamplesUsedInTest.rhea9 + "\n# changed\n");
+		assertEquals(0, convert());
+		assertNotEquals(STALE, Files.readString(nine));
+		assertNotEquals(STALE, Files.readString(index));
+	}
+
+	private int convert() {
+		return new CommandLine(new Converter()).execute("--input-directory", tempDir.toString(), "--markdown",
+				"--incremental");
+	}
+
+	private static void markStale(Path... outputs) throws IOException {
+		for (Path output : outputs) {
+			Files.writeString(output, STALE);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.util.Models;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+public class CorpusSnapshotTest {
+	@TempDir
+	Path tempDir;
+
+	private static String turtle(String name) {
+		return "<https://example.org/1> <https://schema.org/name> \"" + name + "\" .\n";
+	}
+
+	private static String name(Example example) {
+		assertNull(example.failure());
+		return Models.objectLiteral(example.model()).map(Literal::stringValue).orElseThrow();
+	}
+
+	/**
+	 * Writes the file, keeping the modification time it had before.
+	 */
+	private static void rewriteKeepingTime(Path file, String content) throws IOException {
+		FileTime modified = Files.getLastModifiedTime(file);
+		Files.writeString(file, content);
+		Files.setLastModifiedTime(file, modified);
+	}
+
+	private static void touch(Path file) throws IOException {
+		FileTime modified = Files.getLastModifiedTime(file);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 10_000));
+	}
+
+	private CorpusSnapshot saved(Path snapshotFile, Path example) throws IOException {
+		CorpusSnapshot snapshot = CorpusSnapshot.open(snapshotFile, tempDir);
+		snapshot.example(example);
+		snapshot.save();
+		return CorpusSnapshot.open(snapshotFile, tempDir);
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+		Example parsed = Example.parse(example);
+
+		CorpusSnapshot reopened = saved(snapshotFile, example);
+		assertTrue(Files.isRegularFile(snapshotFile));
+		assertEquals(1, reopened.size());
+		Example fromSnapshot = reopened.example(example);
+		assertEquals(parsed.model(), fromSnapshot.model());
+		assertEquals(parsed.queries(), fromSnapshot.queries());
+		// The model is a copy, changing it does not change the snapshot
+		fromSnapshot.model().clear();
+		assertEquals("ABC", name(reopened.example(example)));
+	}
+
+	@Test
+	public void sameSizeAndTimeIsTrusted() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+		CorpusSnapshot reopened = saved(snapshotFile, example);
+
+		rewriteKeepingTime(example, turtle("XYZ"));
+		assertEquals("ABC", name(reopened.example(example)));
+	}
+
+	@Test
+	public void otherSizeIsParsedAgain() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+		CorpusSnapshot reopened = saved(snapshotFile, example);
+
+		rewriteKeepingTime(example, turtle("ABCD"));
+		assertEquals("ABCD", name(reopened.example(example)));
+		reopened.save();
+		assertEquals("ABCD", name(CorpusSnapshot.open(snapshotFile, tempDir).example(example)));
+	}
+
+	@Test
+	public void otherTimeWithOtherContentIsParsedAgain() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+		CorpusSnapshot reopened = saved(snapshotFile, example);
+
+		rewriteKeepingTime(example, turtle("XYZ"));
+		touch(example);
+		assertEquals("XYZ", name(reopened.example(example)));
+	}
+
+	@Test
+	public void otherTimeWithSameContentMatchesTheSha256() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+		CorpusSnapshot reopened = saved(snapshotFile, example);
+
+		touch(example);
+		assertEquals("ABC", name(reopened.example(example)));
+		reopened.save();
+		// The new time is stored, so the file is trusted again without reading it
+		CorpusSnapshot again = CorpusSnapshot.open(snapshotFile, tempDir);
+		rewriteKeepingTime(example, turtle("XYZ"));
+		assertEquals("ABC", name(again.example(example)));
+	}
+
+	@Test
+	public void deletedFilesAreDropped() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path one = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+		Path two = Files.writeString(tempDir.resolve("2.ttl"), turtle("XYZ"));
+		CorpusSnapshot snapshot = CorpusSnapshot.open(snapshotFile, tempDir);
+		assertEquals(2, snapshot.refresh(List.of(one, two)));
+		snapshot.save();
+
+		Files.delete(two);
+		CorpusSnapshot reopened = CorpusSnapshot.open(snapshotFile, tempDir);
+		reopened.save();
+		assertEquals(1, CorpusSnapshot.open(snapshotFile, tempDir).size());
+	}
+
+	@Test
+	public void unreadableSnapshotIsReplaced() throws IOException {
+		Path snapshotFile = Files.writeString(tempDir.resolve(CorpusSnapshot.FILE_NAME), "not a snapshot");
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), turtle("ABC"));
+
+		CorpusSnapshot snapshot = CorpusSnapshot.open(snapshotFile, tempDir);
+		assertEquals(0, snapshot.size());
+		assertEquals("ABC", name(snapshot.example(example)));
+		snapshot.save();
+		assertEquals(1, CorpusSnapshot.open(snapshotFile, tempDir).size());
+	}
+
+	@Test
+	public void invalidFilesAreNotKept() throws IOException {
+		Path snapshotFile = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		Path example = Files.writeString(tempDir.resolve("1.ttl"), "not turtle");
+
+		CorpusSnapshot snapshot = CorpusSnapshot.open(snapshotFile, tempDir);
+		assertNotNull(snapshot.example(example).failure());
+		snapshot.save();
+		assertEquals(0, CorpusSnapshot.open(snapshotFile, tempDir).size());
+	}
+}
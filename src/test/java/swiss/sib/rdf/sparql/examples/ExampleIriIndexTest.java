@@ -0,0 +1,48 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.junit.jupiter.api.Test;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+public class ExampleIriIndexTest {
+	private static final IRI EX_1 = SimpleValueFactory.getInstance()
+			.createIRI("https://sparql.swisslipids.org/.well-known/sparql-examples/1");
+
+	private static Example example(String name, String turtle) {
+		return Example.parse(Path.of("examples", "SwissLipids", name), turtle.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void findsAnIriInTwoFiles() {
+		Example one = example("1.ttl", ExamplesUsedInTest.simple);
+		Example copy = example("copy.ttl", ExamplesUsedInTest.simple);
+		Example other = example("2.ttl", ExamplesUsedInTest.simple.replace("ex:1", "ex:2"));
+		ExampleIriIndex index = ExampleIriIndex.of(new ExampleCorpus(List.of(one, copy, other)));
+
+		assertEquals(Map.of(EX_1, List.of(one.path(), copy.path())), index.duplicates());
+		assertEquals(index.duplicates(), index.duplicatesOf(copy.path()));
+		assertTrue(index.duplicatesOf(other.path()).isEmpty());
+		assertEquals(List.of(one.path(), copy.path()), index.files(EX_1));
+	}
+
+	@Test
+	public void uniqueIris() {
+		Example one = example("1.ttl", ExamplesUsedInTest.simple);
+		Example other = example("2.ttl", ExamplesUsedInTest.simple.replace("ex:1", "ex:2"));
+		ExampleIriIndex index = ExampleIriIndex.of(new ExampleCorpus(List.of(one, other)));
+
+		assertTrue(index.duplicates().isEmpty());
+		assertEquals(List.of(other.path()), index.files(SimpleValueFactory.getInstance()
+				.createIRI("https://sparql.swisslipids.org/.well-known/sparql-examples/2")));
+	}
+}
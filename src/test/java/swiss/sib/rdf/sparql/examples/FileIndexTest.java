@@ -0,0 +1,80 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileIndexTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void findsExamplesAndPrefixesInOneWalk() throws IOException {
+		Path uniprot = Files.createDirectories(tempDir.resolve("UniProt"));
+		Path humans = Files.createDirectories(uniprot.resolve("humans"));
+		Path rhea = Files.createDirectories(tempDir.resolve("Rhea"));
+		Files.writeString(tempDir.resolve("prefixes.ttl"), "");
+		Files.writeString(uniprot.resolve("prefixes.ttl"), "");
+		Files.writeString(uniprot.resolve("2.ttl"), "");
+		Files.writeString(uniprot.resolve("1.ttl"), "");
+		Files.writeString(uniprot.resolve("1.rq"), "");
+		Files.writeString(humans.resolve("3.ttl"), "");
+
+		FileIndex index = FileIndex.of(tempDir);
+		assertEquals(List.of(rhea, uniprot), index.projects());
+		assertEquals(List.of(uniprot.resolve("1.ttl"), uniprot.resolve("2.ttl")), index.examples(uniprot));
+		assertEquals(List.of(uniprot.resolve("1.ttl"), uniprot.resolve("2.ttl"), humans.resolve("3.ttl")),
+				index.examplesBelow(uniprot));
+		assertEquals(Optional.of(uniprot.resolve("prefixes.ttl")), index.prefixFile(uniprot));
+		assertEquals(Optional.empty(), index.prefixFile(rhea));
+		assertEquals(List.of(tempDir.resolve("prefixes.ttl"), uniprot.resolve("prefixes.ttl")),
+				index.prefixFilesBelow(tempDir));
+		assertEquals(List.of(humans), index.subDirectories(uniprot));
+		assertTrue(index.hasExamples(humans));
+		assertTrue(!index.hasExamples(rhea));
+	}
+
+	@Test
+	public void aNewIndexSeesChangedFiles() throws IOException {
+		Path project = Files.createDirectories(tempDir.resolve("project"));
+		Files.writeString(project.resolve("1.ttl"), "");
+		FileIndex before = FileIndex.of(tempDir);
+		Files.writeString(project.resolve("2.ttl"), "");
+		Files.delete(project.resolve("1.ttl"));
+
+		assertEquals(List.of(project.resolve("1.ttl")), before.examples(project));
+		assertEquals(List.of(project.resolve("2.ttl")), FileIndex.of(tempDir).examples(project));
+		// The index of a directory inside an earlier indexed one is made on its own
+		assertEquals(List.of(project.resolve("2.ttl")), FileIndex.of(project).examples(project));
+	}
+
+	@Test
+	public void findFilesListsOnlyTheDirectory() throws IOException {
+		Path project = Files.createDirectories(tempDir.resolve("project"));
+		Files.createDirectories(project.resolve("sub"));
+		Files.createDirectories(project.resolve("directory.ttl"));
+		Files.writeString(project.resolve("prefixes.ttl"), "");
+		Files.writeString(project.resolve("2.ttl"), "");
+		Files.writeString(project.resolve("1.ttl"), "");
+		Files.writeString(project.resolve("sub").resolve("3.ttl"), "");
+
+		try (var examples = FindFiles.sparqlExamples(project)) {
+			assertEquals(List.of(project.resolve("1.ttl"), project.resolve("2.ttl")), examples.toList());
+		}
+	}
+
+	@Test
+	public void notADirectory() throws IOException {
+		FileIndex index = FileIndex.of(tempDir.resolve("missing"));
+		assertTrue(index.projects().isEmpty());
+		assertTrue(index.examplesBelow(tempDir).isEmpty());
+	}
+}
@@ -0,0 +1,26 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.eclipse.rdf4j.query.MalformedQueryException;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.junit.jupiter.api.Test;
+
+public class ParsedQueriesTest {
+	private static final String QUERY = "SELECT ?s WHERE { ?s <p> ?o }";
+
+	@Test
+	public void parsedOncePerQueryAndBase() {
+		ParsedQuery first = ParsedQueries.parse(QUERY, "https://example.org/");
+		assertSame(first, ParsedQueries.parse(QUERY, "https://example.org/"));
+		assertNotSame(first, ParsedQueries.parse(QUERY, "https://example.com/"));
+	}
+
+	@Test
+	public void malformedStaysMalformed() {
+		assertThrows(MalformedQueryException.class, () -> ParsedQueries.parse("SELECT", "https://example.org/"));
+		assertThrows(MalformedQueryException.class, () -> ParsedQueries.parse("SELECT", "https://example.org/"));
+	}
+}
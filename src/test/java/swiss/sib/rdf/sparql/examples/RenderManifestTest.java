@@ -0,0 +1,40 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RenderManifestTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void rememberedHashesSurviveASave() throws IOException {
+		Path output = Files.createDirectories(tempDir.resolve("project")).resolve("1.md");
+		RenderManifest manifest = RenderManifest.load(tempDir);
+		String hash = RenderManifest.hash("1.ttl", "content");
+		assertFalse(manifest.isCurrent(output, hash));
+		manifest.rendered(output, hash);
+		// Not current while the output does not exist
+		assertFalse(manifest.isCurrent(output, hash));
+		Files.writeString(output, "rendered");
+		assertTrue(manifest.isCurrent(output, hash));
+		manifest.save();
+
+		RenderManifest loaded = RenderManifest.load(tempDir);
+		assertTrue(loaded.isCurrent(output, hash));
+		assertFalse(loaded.isCurrent(output, RenderManifest.hash("1.ttl", "changed")));
+	}
+
+	@Test
+	public void partsAreDelimited() {
+		assertNotEquals(RenderManifest.hash("ab", "c"), RenderManifest.hash("a", "bc"));
+	}
+}
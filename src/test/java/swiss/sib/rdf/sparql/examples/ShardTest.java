@@ -0,0 +1,83 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import picocli.CommandLine;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+
+public class ShardTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void shardsSplitTheExamples() {
+		Path base = tempDir;
+		List<Path> files = IntStream.range(0, 100).mapToObj(i -> base.resolve("project/" + i + ".ttl")).toList();
+		Shard first = Shard.parse("1/3");
+		Shard second = Shard.parse("2/3");
+		Shard third = Shard.parse("3/3");
+		for (Path file : files) {
+			int in = (first.contains(base, file) ? 1 : 0) + (second.contains(base, file) ? 1 : 0)
+					+ (third.contains(base, file) ? 1 : 0);
+			assertEquals(1, in);
+		}
+		assertTrue(files.stream().anyMatch(f -> first.contains(base, f)));
+		assertThrows(IllegalArgumentException.class, () -> Shard.parse("4/3"));
+		assertThrows(IllegalArgumentException.class, () -> Shard.parse("all"));
+	}
+
+	@Test
+	public void aMalformedShardIsAUsageError() {
+		StringWriter err = new StringWriter();
+		CommandLine commandLine = new CommandLine(new Tester()).setErr(new PrintWriter(err));
+		int exitCode = commandLine.execute("--input-directory", tempDir.toString(), "--shard", "4/3");
+		assertEquals(CommandLine.ExitCode.USAGE, exitCode);
+		assertTrue(err.toString().contains("k/N"));
+	}
+
+	@Test
+	public void allContainsEverything() {
+		assertTrue(Shard.ALL.contains(tempDir, tempDir.resolve("project/1.ttl")));
+		assertEquals(Shard.ALL, Shard.parse("1/1"));
+	}
+
+	@Test
+	public void theShardIsTakenFromTheFullCorpus() throws IOException {
+		Path project = Files.createDirectories(tempDir.resolve("project"));
+		for (int i = 0; i < 20; i++) {
+			Files.writeString(project.resolve(i + ".ttl"), ExamplesUsedInTest.simple.replace("ex:1", "ex:" + i));
+		}
+		Path snapshot = tempDir.resolve(CorpusSnapshot.FILE_NAME);
+		try (CorpusContext context = CorpusContext.of(tempDir, List.of(project)).withSnapshot(snapshot)
+				.withShard(Shard.parse("1/2"))) {
+			List<Path> inShard = context.sparqlExamples().sorted().toList();
+			assertTrue(inShard.size() < 20);
+			assertEquals(inShard, context.corpus().stream().map(Example::path).sorted().toList());
+			// The example IRIs of the other shard are known as well
+			IRI last = SimpleValueFactory.getInstance()
+					.createIRI("https://sparql.swisslipids.org/.well-known/sparql-examples/19");
+			assertEquals(List.of(project.resolve("19.ttl")), context.exampleIris().files(last));
+			assertEquals(20, CorpusSnapshot.open(snapshot, tempDir).size());
+
+			context.withShard(Shard.ALL);
+			assertEquals(20, context.corpus().examples().size());
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StatusReportTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	public void writeAndReadBack() throws IOException {
+		StatusReport report = new StatusReport(10, 1, 0, 2, 7, List
+				.of(new StatusReport.Failure("testAllWithJena()", "UniProt/1.ttl", "Lexical error\n\tat line 1")));
+		Path file = tempDir.resolve("report.tsv");
+		report.write(file);
+		assertEquals(report, StatusReport.read(file));
+	}
+
+	@Test
+	public void merge() {
+		StatusReport one = new StatusReport(10, 1, 0, 2, 7,
+				List.of(new StatusReport.Failure("testAllWithJena()", "UniProt/1.ttl", "")));
+		StatusReport two = new StatusReport(5, 1, 1, 0, 3,
+				List.of(new StatusReport.Failure("testAllWithRDF4j()", "Rhea/9.ttl", "")));
+		StatusReport merged = StatusReport.merge(List.of(one, two));
+		assertEquals(new StatusReport(15, 2, 1, 2, 10, List.of(one.failures().get(0), two.failures().get(0))),
+				merged);
+	}
+
+	@Test
+	public void linksAreRelativeToTheMarkdown() throws IOException {
+		Path examples = tempDir.resolve("examples");
+		assertEquals("examples",
+				Tester.TestExecutionAsSummaryMarkdownWriter.linkBase(tempDir.resolve("status.md"), examples));
+		String linkBase = Tester.TestExecutionAsSummaryMarkdownWriter.linkBase(tempDir.resolve("out/status.md"),
+				examples);
+		assertEquals("../examples", linkBase);
+		StatusReport report = new StatusReport(1, 1, 0, 0, 0,
+				List.of(new StatusReport.Failure("testAllWithJena()", "UniProt/1.ttl", "Lexical error")));
+		StringWriter markdown = new StringWriter();
+		try (BufferedWriter w = new BufferedWriter(markdown)) {
+			new Tester.TestExecutionAsSummaryMarkdownWriter(linkBase).print(report, w);
+		}
+		assertTrue(markdown.toString().contains("[UniProt/1.ttl](../examples/UniProt/1.ttl)"));
+	}
+}
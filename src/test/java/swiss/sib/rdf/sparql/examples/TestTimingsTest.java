@@ -0,0 +1,113 @@
+package swiss.sib.rdf.sparql.examples;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
+import org.junit.platform.launcher.TestIdentifier;
+
+import swiss.sib.rdf.sparql.examples.tests.EngineStartup;
+
+public class TestTimingsTest {
+	@TempDir
+	Path tempDir;
+
+	private static final class Descriptor extends AbstractTestDescriptor {
+		private final Type type;
+
+		private Descriptor(UniqueId id, Type type) {
+			super(id, id.getLastSegment().getValue());
+			this.type = type;
+		}
+
+		@Override
+		public Type getType() {
+			return type;
+		}
+	}
+
+	private static final UniqueId FACTORY = UniqueId.forEngine("junit-jupiter")
+			.append("class", "swiss.sib.rdf.sparql.examples.tests.ValidateSparqlExamplesTest")
+			.append("test-factory", "testAllWithJena(swiss.sib.rdf.sparql.examples.CorpusContext)");
+
+	private static TestIdentifier test(String name) {
+		Descriptor factory = new Descriptor(FACTORY, AbstractTestDescriptor.Type.CONTAINER);
+		Descriptor test = new Descriptor(FACTORY.append("dynamic-test", name), AbstractTestDescriptor.Type.TEST);
+		factory.addChild(test);
+		return TestIdentifier.from(test);
+	}
+
+	@Test
+	public void timesTestsPerFactory() throws InterruptedException, IOException {
+		TestTimings timings = new TestTimings();
+		timings.start(Optional.empty());
+		TestIdentifier factory = TestIdentifier.from(new Descriptor(FACTORY, AbstractTestDescriptor.Type.CONTAINER));
+		TestIdentifier fast = test("UniProt/1.ttl");
+		TestIdentifier slow = test("UniProt/2.ttl");
+		timings.executionStarted(factory);
+		timings.executionStarted(fast);
+		timings.executionFinished(fast, TestExecutionResult.successful());
+		timings.executionStarted(slow);
+		Thread.sleep(5);
+		timings.executionFinished(slow, TestExecutionResult.successful());
+		timings.executionFinished(factory, TestExecutionResult.successful());
+
+		assertEquals(List.of("UniProt/2.ttl"), timings.slowest(1).stream().map(TestTimings.Timing::testName).toList());
+		assertEquals("testAllWithJena()", timings.slowest(1).get(0).group());
+		TestTimings.GroupTiming group = timings.groups().get(0);
+		assertEquals("testAllWithJena()", group.group());
+		assertEquals(2, group.tests());
+		assertTrue(group.wallNanos() >= group.testNanos());
+
+		Path csv = Tester.timingsCsv(tempDir.resolve("status.md"));
+		assertEquals(tempDir.resolve("status-timings.csv"), csv);
+		timings.writeCsv(csv);
+		List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+		assertEquals(3, lines.size());
+		assertEquals("group,test,nanos", lines.get(0));
+		assertTrue(lines.get(1).startsWith("\"testAllWithJena()\",\"UniProt/1.ttl\","));
+	}
+
+	@Test
+	public void eachCorpusGetsTheTimingsOfItsOwnRun() {
+		try (CorpusContext first = CorpusContext.of(tempDir, List.of());
+				CorpusContext second = CorpusContext.of(tempDir, List.of())) {
+			TestTimings firstTimings = new TestTimings();
+			TestTimings secondTimings = new TestTimings();
+			firstTimings.start(Optional.of(first.register()));
+			EngineStartup firstStartup = first.engineStartup();
+			secondTimings.start(Optional.of(second.register()));
+
+			assertSame(firstTimings, first.testTimings().orElseThrow());
+			assertSame(secondTimings, second.testTimings().orElseThrow());
+			assertNotSame(first.engineStartup(), second.engineStartup());
+			// A new run of the first corpus starts over
+			firstTimings.start(Optional.of(first.id()));
+			assertNotSame(firstStartup, first.engineStartup());
+		}
+	}
+
+	@Test
+	public void groupOfATestInADynamicContainer() {
+		UniqueId container = FACTORY.append("dynamic-container", "#1");
+		Descriptor factory = new Descriptor(FACTORY, AbstractTestDescriptor.Type.CONTAINER);
+		Descriptor endpoint = new Descriptor(container, AbstractTestDescriptor.Type.CONTAINER);
+		Descriptor test = new Descriptor(container.append("dynamic-test", "#1"), AbstractTestDescriptor.Type.TEST);
+		factory.addChild(endpoint);
+		endpoint.addChild(test);
+		assertEquals("testAllWithJena()", StatusReport.group(TestIdentifier.from(test)));
+	}
+}
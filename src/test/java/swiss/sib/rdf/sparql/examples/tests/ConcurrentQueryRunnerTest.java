@@ -0,0 +1,77 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+public class ConcurrentQueryRunnerTest {
+
+	@Test
+	void onePerEndpoint() throws Throwable {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger most = new AtomicInteger();
+		try (ConcurrentQueryRunner runner = new ConcurrentQueryRunner(4, 1)) {
+			List<Executable> waits = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				waits.add(runner.submit("https://sparql.uniprot.org/sparql", () -> {
+					most.accumulateAndGet(running.incrementAndGet(), Math::max);
+					Thread.sleep(10);
+					running.decrementAndGet();
+				}));
+			}
+			for (Executable wait : waits) {
+				wait.execute();
+			}
+		}
+		assertEquals(1, most.get());
+	}
+
+	@Test
+	void endpointsInParallel() throws Throwable {
+		CountDownLatch rheaStarted = new CountDownLatch(1);
+		try (ConcurrentQueryRunner runner = new ConcurrentQueryRunner(2, 1)) {
+			Executable uniprot = runner.submit("https://sparql.uniprot.org/sparql",
+					() -> assertTrue(rheaStarted.await(10, TimeUnit.SECONDS), "Rhea did not run at the same time"));
+			Executable rhea = runner.submit("https://sparql.rhea-db.org/sparql", rheaStarted::countDown);
+			uniprot.execute();
+			rhea.execute();
+		}
+	}
+
+	@Test
+	void nothingIsSubmittedBeforeTheFirstTest() throws Throwable {
+		AtomicInteger ran = new AtomicInteger();
+		try (ConcurrentQueryRunner runner = new ConcurrentQueryRunner(2, 2)) {
+			List<Executable> runs = List.of(ran::incrementAndGet, ran::incrementAndGet, ran::incrementAndGet);
+			List<Executable> unused = runner.submitOnFirstTest("https://sparql.rhea-db.org/sparql", runs);
+			List<Executable> waits = runner.submitOnFirstTest("https://sparql.uniprot.org/sparql", runs);
+			Thread.sleep(10);
+			assertEquals(0, ran.get());
+			assertEquals(3, unused.size());
+			waits.get(1).execute();
+			waits.get(0).execute();
+			waits.get(2).execute();
+		}
+		assertEquals(3, ran.get());
+	}
+
+	@Test
+	void failsLikeTheRun() {
+		try (ConcurrentQueryRunner runner = new ConcurrentQueryRunner(1, 1)) {
+			Executable wait = runner.submit("https://sparql.uniprot.org/sparql", () -> {
+				throw new AssertionError("Expected at least one result but got none.");
+			});
+			AssertionError e = assertThrows(AssertionError.class, wait::execute);
+			assertEquals("Expected at least one result but got none.", e.getMessage());
+		}
+	}
+}
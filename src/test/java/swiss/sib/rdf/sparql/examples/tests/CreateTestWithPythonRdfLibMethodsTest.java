@@ -1,15 +1,34 @@
 package swiss.sib.rdf.sparql.examples.tests;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.graalvm.polyglot.Value;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import swiss.sib.rdf.sparql.examples.ExampleCorpus;
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
 import swiss.sib.rdf.sparql.examples.ExamplesUsedInTest;
 
 class CreateTestWithPythonRdfLibMethodsTest {
+	private static final String VALID = "SELECT * WHERE { ?s ?p ?o }";
+	private static final String INVALID = "SELECT * WHERE {";
+
 	@TempDir
 	Path tempDir;
 	
@@ -20,7 +39,99 @@ class CreateTestWithPythonRdfLibMethodsTest {
 		Files.createFile(test);
 		Files.writeString(test, ExamplesUsedInTest.rhea9);
 		
-		new CreateTestWithPythonRdfLibMethods().testQueryValid(test);
+		try (var tester = new CreateTestWithPythonRdfLibMethods()) {
+			tester.testQueryValid(test);
+		}
+	}
+
+	@Test
+	void testParseErrorFromSeveralThreads() {
+		try (var tester = new CreateTestWithPythonRdfLibMethods(2)) {
+			List<String> errors = IntStream.range(0, 8).parallel()
+					.mapToObj(i -> tester.parseErrors(List.of(i % 2 == 0 ? VALID : INVALID)).get(0)).toList();
+			for (int i = 0; i < errors.size(); i++) {
+				if (i % 2 == 0) {
+					assertNull(errors.get(i));
+				} else {
+					assertNotNull(errors.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	void testBatchKeepsTheOrderOfTheQueries() {
+		try (var tester = new CreateTestWithPythonRdfLibMethods(1)) {
+			List<String> errors = tester
+					.parseErrors(List.of(VALID, INVALID, "SELECT * { SERVICE <https://example.org/> {} }", VALID));
+			assertNull(errors.get(0));
+			assertNotNull(errors.get(1));
+			assertNull(errors.get(2));
+			assertNull(errors.get(3));
+		}
+	}
+
+	@Test
+	void testBatchedValidatesTheCorpusUpFront() throws IOException {
+		Path test = tempDir.resolve("test.ttl");
+		Files.writeString(test, ExamplesUsedInTest.rhea9);
+		ExampleCorpus corpus = ExampleCorpus.load(Stream.of(test));
+		try (var tester = new CreateTestWithPythonRdfLibMethods(2)) {
+			var batched = tester.batched(corpus.stream().flatMap(Example::queryStrings));
+			corpus.stream().forEach(batched::testQueryValid);
+		}
 	}
 
+	@Test
+	void testBatchedOnlyValidatesTheGivenQueries() {
+		try (var tester = new CreateTestWithPythonRdfLibMethods(1)) {
+			var batched = tester.batched(Stream.of(INVALID));
+			List<String> errors = batched.parseErrors(List.of(VALID, INVALID));
+			assertNull(errors.get(0));
+			assertNotNull(errors.get(1));
+		}
+	}
+
+	@Test
+	void testSubmittedWorkRunsOnThePool() {
+		try (var pool = new PythonContextPool("lambda x: x", 2)) {
+			String thread = pool.submit(v -> Thread.currentThread().getName() + v.asString(), "a").join();
+			assertTrue(thread.startsWith("graalpy-"));
+			assertTrue(thread.endsWith("a"));
+		}
+	}
+
+	@Test
+	void testClosingWakesWaitingThreads() throws InterruptedException {
+		CountDownLatch borrowed = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try (var pool = new PythonContextPool("lambda x: x", 1)) {
+			pool.submit(v -> {
+				borrowed.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return v.asString();
+			}, "a");
+			assertTrue(borrowed.await(1, TimeUnit.MINUTES));
+			CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> pool.execute(Value::asString, "b"));
+			pool.close();
+			ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(10, TimeUnit.SECONDS));
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void testContextsAreMadeOnlyWhenNeeded() {
+		try (var pool = new PythonContextPool("lambda x: x", 4)) {
+			assertEquals(0, pool.size());
+			assertEquals("a", pool.execute(Value::asString, "a"));
+			assertEquals("b", pool.execute(Value::asString, "b"));
+			assertEquals(1, pool.size());
+		}
+	}
 }
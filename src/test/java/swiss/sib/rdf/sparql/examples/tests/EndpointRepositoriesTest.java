@@ -0,0 +1,29 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.rdf4j.repository.sparql.SPARQLRepository;
+import org.junit.jupiter.api.Test;
+
+public class EndpointRepositoriesTest {
+
+	@Test
+	void oneRepositoryPerEndpoint() {
+		EndpointRepositories repositories = new EndpointRepositories();
+		SPARQLRepository uniprot = repositories.repository("https://sparql.uniprot.org/sparql");
+		assertTrue(uniprot.isInitialized());
+		assertSame(uniprot, repositories.repository("https://sparql.uniprot.org/sparql"));
+		assertNotSame(uniprot, repositories.repository("https://sparql.rhea-db.org/sparql"));
+		assertEquals(2, repositories.size());
+
+		repositories.close();
+		assertFalse(uniprot.isInitialized());
+		assertEquals(0, repositories.size());
+		assertThrows(IllegalStateException.class, () -> repositories.repository("https://sparql.uniprot.org/sparql"));
+	}
+}
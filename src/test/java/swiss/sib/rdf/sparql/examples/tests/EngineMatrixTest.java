@@ -0,0 +1,46 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.AssertionFailedError;
+
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+import swiss.sib.rdf.sparql.examples.ExamplesUsedInTest;
+import swiss.sib.rdf.sparql.examples.tests.EngineMatrix.Matrix;
+import swiss.sib.rdf.sparql.examples.tests.EngineMatrix.Row;
+
+class EngineMatrixTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testOutcomesOfTheTestsAreRecorded() throws Throwable {
+		Example example = Example.parse(tempDir.resolve("rhea/9.ttl"),
+				ExamplesUsedInTest.rhea9.getBytes(StandardCharsets.UTF_8));
+		EngineMatrix engineMatrix = new EngineMatrix();
+		engineMatrix.recording(SparqlEngine.JENA, e -> () -> {
+		}).apply(example).execute();
+		assertThrows(AssertionFailedError.class, () -> engineMatrix
+				.recording(SparqlEngine.RDF4J, e -> () -> fail("not parsed")).apply(example).execute());
+		assertNull(engineMatrix.recording(SparqlEngine.BLAZEGRAPH, e -> null).apply(example));
+
+		Matrix matrix = engineMatrix.matrix();
+		assertEquals(Set.of(SparqlEngine.JENA, SparqlEngine.RDF4J), matrix.engines());
+		assertEquals(1, matrix.rows().size());
+		Row row = matrix.rows().get(0);
+		assertEquals("rhea/9.ttl", row.name());
+		assertEquals(1, matrix.passed(SparqlEngine.JENA));
+		assertEquals(1, matrix.failed(SparqlEngine.RDF4J));
+		assertEquals("not parsed", row.outcomes().get(SparqlEngine.RDF4J).failure());
+		assertEquals(0, matrix.passed(SparqlEngine.BLAZEGRAPH));
+	}
+}
@@ -1,10 +1,15 @@
 package swiss.sib.rdf.sparql.examples.tests;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -51,4 +56,69 @@ public class SparqShaclTest {
 		}
 		assertTrue(failed, "We should have detected a shacl validation failure");
 	}
+
+	@Test
+	void isolated() throws IOException {
+		Path simple = p.resolve("simple.ttl");
+		Files.writeString(simple, ExamplesUsedInTest.simple);
+		Path wrong = p.resolve("wrong.ttl");
+		StringBuilder toMakeWrong = new StringBuilder(ExamplesUsedInTest.simple);
+		toMakeWrong.insert(toMakeWrong.lastIndexOf(".") - 1, " ; schema:keyowrds '''lala'''");
+		Files.writeString(wrong, toMakeWrong);
+
+		try (IsolatedShaclValidator validator = new IsolatedShaclValidator(List.of(simple, wrong))) {
+			validator.assertValid(simple);
+			assertEquals(Set.of(wrong), validator.reports().keySet());
+			assertTrue(validator.reports().get(wrong).message().contains("Failed SHACL validation"));
+			assertThrows(AssertionFailedError.class, () -> validator.assertValid(wrong));
+		}
+	}
+
+	@Test
+	void isolatedStoresOnlyKeepTheShapes() throws IOException {
+		Path simple = p.resolve("simple.ttl");
+		Files.writeString(simple, ExamplesUsedInTest.simple);
+		// The same example IRI again, which a store that kept the first file rejects
+		List<Path> copies = new ArrayList<>();
+		for (int i = 0; i < 4 * Runtime.getRuntime().availableProcessors(); i++) {
+			Path copy = p.resolve("copy" + i + ".ttl");
+			Files.writeString(copy, ExamplesUsedInTest.simple);
+			copies.add(copy);
+		}
+		copies.add(simple);
+		try (IsolatedShaclValidator validator = new IsolatedShaclValidator(copies)) {
+			assertTrue(validator.reports().isEmpty());
+		}
+	}
+
+	@Test
+	void bulk() throws IOException {
+		Path simple = p.resolve("simple.ttl");
+		Files.writeString(simple, ExamplesUsedInTest.simple);
+		Path wrong = p.resolve("wrong.ttl");
+		StringBuilder toMakeWrong = new StringBuilder(ExamplesUsedInTest.simple.replace("ex:1", "ex:2"));
+		toMakeWrong.insert(toMakeWrong.lastIndexOf(".") - 1, " ; schema:keyowrds '''lala'''");
+		Files.writeString(wrong, toMakeWrong);
+
+		try (BulkShaclValidator validator = new BulkShaclValidator(List.of(simple, wrong))) {
+			validator.assertValid(simple);
+			validator.assertAllResultsMatched();
+			assertEquals(Set.of(wrong), validator.reports().keySet());
+			assertTrue(validator.reports().get(wrong).message().contains("Failed SHACL validation"));
+		}
+	}
+
+	@Test
+	void bulkFindsAnExampleIriInTwoFiles() throws IOException {
+		Path simple = p.resolve("simple.ttl");
+		Files.writeString(simple, ExamplesUsedInTest.simple);
+		Path copy = p.resolve("copy.ttl");
+		Files.writeString(copy, ExamplesUsedInTest.simple.replace("sh:select '''", "sh:select '''# copied\n"));
+
+		try (BulkShaclValidator bulk = new BulkShaclValidator(List.of(simple, copy));
+				IsolatedShaclValidator isolated = new IsolatedShaclValidator(List.of(simple, copy))) {
+			assertEquals(Set.of(simple, copy), bulk.reports().keySet());
+			assertTrue(isolated.reports().isEmpty());
+		}
+	}
 }
@@ -0,0 +1,99 @@
+package swiss.sib.rdf.sparql.examples.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.AssertionFailedError;
+
+import swiss.sib.rdf.sparql.examples.CorpusContext;
+import swiss.sib.rdf.sparql.examples.ExampleCorpus.Example;
+import swiss.sib.rdf.sparql.examples.ExamplesUsedInTest;
+import swiss.sib.rdf.sparql.examples.Tsv;
+
+class ValidationCacheTest {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testOutcomesAreOnlyParsedOnce() throws IOException {
+		Example example = Example.parse(tempDir.resolve("rhea9.ttl"),
+				ExamplesUsedInTest.rhea9.getBytes(StandardCharsets.UTF_8));
+		List<String> parsed = new ArrayList<>();
+		Function<List<String>, List<String>> failing = qs -> {
+			parsed.addAll(qs);
+			return qs.stream().map(q -> "broken\tquery").toList();
+		};
+		ValidationCache cache = ValidationCache.open(tempDir.resolve("cache"));
+		assertEquals(example.queryStrings().count(), cache.notCached(SparqlEngine.JENA, example.queryStrings()).count());
+		AssertionFailedError first = assertThrows(AssertionFailedError.class,
+				() -> cache.assertValid(SparqlEngine.JENA, example, failing));
+		assertEquals(0, cache.notCached(SparqlEngine.JENA, example.queryStrings()).count());
+		int parsedFirst = parsed.size();
+		assertTrue(parsedFirst > 0);
+		AssertionFailedError second = assertThrows(AssertionFailedError.class,
+				() -> cache.assertValid(SparqlEngine.JENA, example, failing));
+		assertEquals(parsedFirst, parsed.size());
+		assertEquals(first.getMessage(), second.getMessage());
+		assertTrue(second.getMessage().contains("broken\tquery"));
+
+		cache.save();
+		try (var files = Files.list(tempDir.resolve("cache"))) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	void testUnusedOutcomesAreDropped() throws IOException {
+		Path directory = tempDir.resolve("pruned");
+		Path file = directory.resolve("jena-" + SparqlEngine.JENA.version() + ".tsv");
+		Files.createDirectories(directory);
+		Files.writeString(file, "stale\t" + ValidationCache.VALID + "\n");
+		Example example = Example.parse(tempDir.resolve("rhea9.ttl"),
+				ExamplesUsedInTest.rhea9.getBytes(StandardCharsets.UTF_8));
+		ValidationCache cache = ValidationCache.open(directory);
+		cache.assertValid(SparqlEngine.JENA, example, qs -> qs.stream().map(q -> (String) null).toList());
+		cache.save();
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(example.queryStrings().count(), lines.size());
+		assertTrue(lines.stream().noneMatch(l -> l.startsWith("stale\t")));
+	}
+
+	@Test
+	void testEachRunSavesItsOwnQueries() throws IOException {
+		Path directory = tempDir.resolve("runs");
+		Example rhea = Example.parse(tempDir.resolve("rhea9.ttl"),
+				ExamplesUsedInTest.rhea9.getBytes(StandardCharsets.UTF_8));
+		Example simple = Example.parse(tempDir.resolve("simple.ttl"),
+				ExamplesUsedInTest.simple.getBytes(StandardCharsets.UTF_8));
+		Function<List<String>, List<String>> valid = qs -> qs.stream().map(q -> (String) null).toList();
+		try (CorpusContext context = CorpusContext.of(tempDir, List.of()).withValidationCache(directory)) {
+			ValidationCache cache = context.validationCache().orElseThrow();
+			cache.assertValid(SparqlEngine.JENA, rhea, valid);
+			cache.save();
+			cache.startRun();
+			cache.assertValid(SparqlEngine.JENA, simple, valid);
+			cache.save();
+		}
+		List<String> lines = Files.readAllLines(directory.resolve("jena-" + SparqlEngine.JENA.version() + ".tsv"));
+		assertEquals(simple.queryStrings().count(), lines.size());
+	}
+
+	@Test
+	void testEscaping() {
+		String message = "line\none\ttab \\ backslash\r";
+		String escaped = Tsv.escape(message);
+		assertTrue(escaped.indexOf('\n') < 0 && escaped.indexOf('\t') < 0);
+		assertEquals(message, Tsv.unescape(escaped));
+	}
+}